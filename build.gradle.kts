@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.1"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.myapp"
@@ -13,10 +14,22 @@ java {
     }
 }
 
+// End-to-end load test harness (src/loadTest), run with ./gradlew loadTest
+val loadTest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
 configurations {
     compileOnly {
         extendsFrom(configurations.annotationProcessor.get())
     }
+    named("loadTestImplementation") {
+        extendsFrom(configurations.implementation.get())
+    }
+    named("loadTestRuntimeOnly") {
+        extendsFrom(configurations.runtimeOnly.get())
+    }
 }
 
 repositories {
@@ -54,6 +67,7 @@ dependencies {
 
     // Utilities
     implementation("org.apache.commons:commons-lang3")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
 
@@ -63,6 +77,7 @@ dependencies {
     // Observability
     implementation("io.micrometer:micrometer-core")
     implementation("io.micrometer:micrometer-registry-prometheus")
+    implementation("io.micrometer:micrometer-tracing-bridge-otel") // trace ids for exemplars
 
     // Development
     developmentOnly("org.springframework.boot:spring-boot-devtools")
@@ -76,6 +91,40 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter:1.20.4")
     testImplementation("com.h2database:h2")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmarks (src/jmh)
+    jmhImplementation("org.springframework:spring-test")
+
+    // Load test harness (src/loadTest)
+    "loadTestImplementation"("org.testcontainers:postgresql:1.20.4")
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+}
+
+// ./gradlew jmh [-Pjmh.includes=JwtBenchmark]
+jmh {
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    jvmArgsAppend.add("--enable-preview")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
+tasks.named<Jar>("jmhJar") {
+    isZip64 = true // the fat jar bundles all of Spring Boot
+}
+
+// ./gradlew loadTest [-Ploadtest.rates=50,100,200 -Ploadtest.duration=60s ...], requires Docker
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the end-to-end load test against Testcontainers Postgres and Redis."
+    group = "verification"
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("com.myapp.authservice.loadtest.LoadTestMain")
+    jvmArgs("--enable-preview")
+    providers.gradlePropertiesPrefixedBy("loadtest.").get().forEach { (name, value) ->
+        systemProperty(name, value)
+    }
 }
 
 tasks.withType<Test> {
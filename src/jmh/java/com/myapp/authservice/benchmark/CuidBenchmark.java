@@ -0,0 +1,22 @@
+package com.myapp.authservice.benchmark;
+
+import com.myapp.authservice.util.CuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * ID generation, single-threaded and contended.
+ */
+public class CuidBenchmark {
+
+    @Benchmark
+    public String generate() {
+        return CuidGenerator.generate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateContended() {
+        return CuidGenerator.generate();
+    }
+}
@@ -0,0 +1,14 @@
+package com.myapp.authservice.benchmark;
+
+/**
+ * Shared benchmark inputs.
+ */
+final class Fixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-with-at-least-256-bits-of-entropy";
+    static final String USER_ID = "cm4x9k2l80000qzrmn0mqgqzr";
+    static final String PHONE = "+919876543210";
+
+    private Fixtures() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.myapp.authservice.benchmark;
+
+import com.myapp.authservice.domain.Role;
+import com.myapp.authservice.security.JwtAuthenticationFilter;
+import com.myapp.authservice.util.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Authentication filter path of every authenticated request: bearer extraction,
+ * token verification and SecurityContext population.
+ */
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        JwtUtils jwtUtils = new JwtUtils(Fixtures.JWT_SECRET, 3600, 30, 10000);
+        filter = new JwtAuthenticationFilter(jwtUtils);
+        authorization = "Bearer " + jwtUtils.generateAccessToken(Fixtures.USER_ID, Fixtures.PHONE, Role.USER);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.myapp.authservice.benchmark;
+
+import com.myapp.authservice.domain.Role;
+import com.myapp.authservice.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Access token minting and verification.
+ *
+ * verifiedCacheSize=0 measures full HMAC verification and parsing on every call;
+ * the default size measures the verified-token cache hit path.
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"0", "10000"})
+    public long verifiedCacheSize;
+
+    private JwtUtils jwtUtils;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils(Fixtures.JWT_SECRET, 3600, 30, verifiedCacheSize);
+        accessToken = jwtUtils.generateAccessToken(Fixtures.USER_ID, Fixtures.PHONE, Role.USER);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtils.generateAccessToken(Fixtures.USER_ID, Fixtures.PHONE, Role.USER);
+    }
+
+    @Benchmark
+    public Claims verifyAccessToken() {
+        return jwtUtils.verifyAccessToken(accessToken);
+    }
+}
@@ -0,0 +1,25 @@
+package com.myapp.authservice.benchmark;
+
+import com.myapp.authservice.util.OtpUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * OTP generation and phone normalization (run on every OTP request).
+ */
+@State(Scope.Benchmark)
+public class OtpUtilsBenchmark {
+
+    private final OtpUtils otpUtils = new OtpUtils(6, 5);
+
+    @Benchmark
+    public String generateOtp() {
+        return otpUtils.generateOtp();
+    }
+
+    @Benchmark
+    public String formatPhone() {
+        return otpUtils.formatPhone("91 98765-43210");
+    }
+}
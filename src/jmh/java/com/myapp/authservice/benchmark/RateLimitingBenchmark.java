@@ -0,0 +1,55 @@
+package com.myapp.authservice.benchmark;
+
+import com.myapp.authservice.config.RateLimitPolicyProperties;
+import com.myapp.authservice.service.CompositeRateLimiter;
+import com.myapp.authservice.service.RateLimitNearCache;
+import com.myapp.authservice.service.RateLimitPolicyRegistry;
+import com.myapp.authservice.service.RateLimitingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Rate limit check overhead (bucket lookup, CAS, serialization) against an in-memory
+ * compare-and-swap store standing in for Redis, so network latency is excluded.
+ *
+ * Limits are set high enough that checks never fail.
+ */
+@State(Scope.Benchmark)
+public class RateLimitingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean nearCache;
+
+    private RateLimitingService rateLimitingService;
+
+    @Setup
+    public void setup() {
+        RateLimitPolicyProperties.Limit limit = new RateLimitPolicyProperties.Limit();
+        limit.setCapacity(1_000_000_000L);
+        limit.setPeriod(Duration.ofMinutes(5));
+        RateLimitPolicyProperties properties = new RateLimitPolicyProperties();
+        properties.setDefaults(Map.of("otp-send", limit, "otp-verify", limit, "passkey-login", limit));
+
+        InMemoryProxyManager proxyManager = new InMemoryProxyManager();
+        rateLimitingService = new RateLimitingService(
+                proxyManager,
+                new RateLimitNearCache(proxyManager, new SimpleMeterRegistry(), nearCache,
+                        100_000, 100, 0.05, 0.2, Duration.ofSeconds(5)),
+                new CompositeRateLimiter(null, false, 30, Duration.ofMinutes(10),
+                        2000, Duration.ofMinutes(1)),
+                new RateLimitPolicyRegistry(properties, null),
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void checkPasskeyLoginLimit() {
+        rateLimitingService.checkPasskeyLoginLimit(Fixtures.PHONE, "203.0.113.7");
+    }
+}
@@ -0,0 +1,57 @@
+package com.myapp.authservice.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency, error and DB connection wait statistics for one load step.
+ *
+ * Shared between the load generator (client-side latency) and the in-process
+ * instrumentation (connection wait, attributed to the endpoint being served).
+ */
+final class EndpointStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private static final Map<String, EndpointStats> ALL = new ConcurrentHashMap<>();
+
+    final String endpoint;
+    final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    final Histogram connectionWait = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    final LongAdder errors = new LongAdder();
+    final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    static EndpointStats of(String endpoint) {
+        return ALL.computeIfAbsent(endpoint, EndpointStats::new);
+    }
+
+    static Map<String, EndpointStats> snapshot() {
+        return new TreeMap<>(ALL);
+    }
+
+    static void resetAll() {
+        ALL.clear();
+    }
+
+    void recordLatency(long nanos, int status) {
+        latency.recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status < 200 || status >= 300) {
+            errors.increment();
+        }
+    }
+
+    void recordConnectionWait(long nanos) {
+        connectionWait.recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+    }
+}
@@ -0,0 +1,323 @@
+package com.myapp.authservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: operations are started at a fixed rate regardless of how
+ * fast the service answers, and latency is measured from the intended start time, so
+ * queueing under saturation shows up in the percentiles (no coordinated omission).
+ *
+ * Operations (weights from the workload mix):
+ * - otp:     POST /auth/otp/send, wait for the stubbed SMS, POST /auth/otp/verify
+ *            (a share of them for new users, who then also POST /auth/passkey/set)
+ * - passkey: POST /auth/passkey/login
+ * - refresh: POST /auth/refresh
+ * - me:      GET /auth/me
+ *
+ * Every operation borrows a session (phone, passkey, tokens) exclusively, so refresh
+ * token rotation stays consistent.
+ */
+final class LoadGenerator {
+
+    static final String OTP_SEND = "POST /auth/otp/send";
+    static final String OTP_VERIFY = "POST /auth/otp/verify";
+    static final String PASSKEY_SET = "POST /auth/passkey/set";
+    static final String PASSKEY_LOGIN = "POST /auth/passkey/login";
+    static final String REFRESH = "POST /auth/refresh";
+    static final String ME = "GET /auth/me";
+
+    private static final long OTP_DELIVERY_TIMEOUT_MILLIS = 10_000;
+
+    private final String baseUrl;
+    private final ServiceStubs stubs;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final double newUserRatio;
+    private final int maxInFlight;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Queue<Session> sessions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong phoneSequence = new AtomicLong();
+
+    final LongAdder dropped = new LongAdder();
+    final LongAdder noSession = new LongAdder();
+
+    LoadGenerator(String baseUrl, ServiceStubs stubs, Map<String, Integer> mix,
+                  double newUserRatio, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.stubs = stubs;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.newUserRatio = newUserRatio;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Create users (OTP signup + passkey) to draw sessions from.
+     */
+    void seed(int users, int concurrency) throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            permits.acquire();
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    Session session = signup();
+                    if (session != null) {
+                        sessions.add(session);
+                    }
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Run the workload at a fixed rate for the duration, then wait for in-flight operations.
+     */
+    void run(double ratePerSecond, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long sleep = intendedStart - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+            if (!inFlight.tryAcquire()) {
+                // Client-side cap reached: the service is far past saturation
+                dropped.increment();
+                continue;
+            }
+            String operation = pickOperation();
+            executor.execute(() -> {
+                try {
+                    execute(operation, intendedStart);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+
+    private String pickOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty workload mix");
+    }
+
+    private void execute(String operation, long intendedStart) {
+        if (operation.equals("otp") && ThreadLocalRandom.current().nextDouble() < newUserRatio) {
+            Session session = signup(intendedStart);
+            if (session != null) {
+                sessions.add(session);
+            }
+            return;
+        }
+
+        Session session = sessions.poll();
+        if (session == null) {
+            noSession.increment();
+            return;
+        }
+        try {
+            switch (operation) {
+                case "otp" -> otpLogin(session, intendedStart);
+                case "passkey" -> passkeyLogin(session, intendedStart);
+                case "refresh" -> refresh(session, intendedStart);
+                case "me" -> me(session, intendedStart);
+                default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        } finally {
+            sessions.add(session);
+        }
+    }
+
+    private Session signup() {
+        return signup(System.nanoTime());
+    }
+
+    private Session signup(long intendedStart) {
+        Session session = new Session(nextPhone(), String.format("%06d", ThreadLocalRandom.current().nextInt(1_000_000)));
+        if (!otpLogin(session, intendedStart)) {
+            return null;
+        }
+        Response set = call(PASSKEY_SET, System.nanoTime(), post("/auth/passkey/set",
+                Map.of("passkey", session.passkey), session.accessToken));
+        return set.ok() ? session : null;
+    }
+
+    private boolean otpLogin(Session session, long intendedStart) {
+        Response send = call(OTP_SEND, intendedStart, post("/auth/otp/send", Map.of("phone", session.phone), null));
+        if (!send.ok()) {
+            return false;
+        }
+        String otp;
+        try {
+            otp = stubs.awaitOtp(session.phone, OTP_DELIVERY_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (otp == null) {
+            EndpointStats.of("OTP delivery").recordLatency(TimeUnit.MILLISECONDS.toNanos(OTP_DELIVERY_TIMEOUT_MILLIS), 504);
+            return false;
+        }
+        Response verify = call(OTP_VERIFY, System.nanoTime(), post("/auth/otp/verify",
+                Map.of("phone", session.phone, "otp", otp, "name", "Load Test " + session.phone), null));
+        return verify.ok() && session.updateTokens(verify.data());
+    }
+
+    private void passkeyLogin(Session session, long intendedStart) {
+        Response login = call(PASSKEY_LOGIN, intendedStart, post("/auth/passkey/login",
+                Map.of("phone", session.phone, "passkey", session.passkey), null));
+        if (login.ok()) {
+            session.updateTokens(login.data());
+        }
+    }
+
+    private void refresh(Session session, long intendedStart) {
+        Response refresh = call(REFRESH, intendedStart, post("/auth/refresh",
+                Map.of("refreshToken", session.refreshToken), null));
+        if (refresh.ok()) {
+            session.updateTokens(refresh.data());
+        }
+    }
+
+    private void me(Session session, long intendedStart) {
+        call(ME, intendedStart, HttpRequest.newBuilder(URI.create(baseUrl + "/auth/me"))
+                .header("Authorization", "Bearer " + session.accessToken)
+                .GET());
+    }
+
+    private HttpRequest.Builder post(String path, Map<String, String> body, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json");
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        try {
+            return builder.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Response call(String endpoint, long intendedStart, HttpRequest.Builder request) {
+        EndpointStats stats = EndpointStats.of(endpoint);
+        try {
+            HttpResponse<String> response = httpClient.send(request
+                            .timeout(Duration.ofSeconds(30))
+                            // Spread clients over subnets, as nginx would report them
+                            .header("X-Real-IP", randomClientIp())
+                            .header("User-Agent", "auth-loadtest/1.0")
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            stats.recordLatency(System.nanoTime() - intendedStart, response.statusCode());
+            return new Response(response.statusCode(), response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.recordLatency(System.nanoTime() - intendedStart, 0);
+            return new Response(0, null);
+        } catch (Exception e) {
+            stats.recordLatency(System.nanoTime() - intendedStart, 0);
+            return new Response(0, null);
+        }
+    }
+
+    private String nextPhone() {
+        // +91 9xxxxxxxxx, unique per run
+        return "+91" + (9_000_000_000L + phoneSequence.incrementAndGet());
+    }
+
+    private static String randomClientIp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+
+    private record Response(int status, String body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode data() {
+            try {
+                return new ObjectMapper().readTree(body).path("data");
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Session {
+        private final String phone;
+        private final String passkey;
+        private String accessToken;
+        private String refreshToken;
+
+        Session(String phone, String passkey) {
+            this.phone = phone;
+            this.passkey = passkey;
+        }
+
+        boolean updateTokens(JsonNode data) {
+            if (data == null || !data.hasNonNull("accessToken")) {
+                return false;
+            }
+            accessToken = data.get("accessToken").asText();
+            refreshToken = data.path("refreshToken").asText(refreshToken);
+            return true;
+        }
+    }
+}
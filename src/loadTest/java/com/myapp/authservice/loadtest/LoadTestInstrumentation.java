@@ -0,0 +1,72 @@
+package com.myapp.authservice.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Added to the application context under test: attributes DataSource.getConnection()
+ * wait time (pool acquisition) to the endpoint being served on the current thread.
+ * Connections taken off the request thread (async writers, schedulers) count as "background".
+ */
+@Configuration(proxyBeanMethods = false)
+class LoadTestInstrumentation {
+
+    private static final ThreadLocal<String> CURRENT_ENDPOINT = new ThreadLocal<>();
+
+    @Bean
+    FilterRegistrationBean<OncePerRequestFilter> endpointTaggingFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                CURRENT_ENDPOINT.set(request.getMethod() + " " + request.getRequestURI());
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    CURRENT_ENDPOINT.remove();
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    static BeanPostProcessor connectionWaitRecorder() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        long start = System.nanoTime();
+                        try {
+                            return super.getConnection();
+                        } finally {
+                            String endpoint = CURRENT_ENDPOINT.get();
+                            EndpointStats.of(endpoint != null ? endpoint : "background")
+                                    .recordConnectionWait(System.nanoTime() - start);
+                        }
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.myapp.authservice.loadtest;
+
+import com.myapp.authservice.AuthServiceApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: boots the service against a Testcontainers Postgres and Redis,
+ * with notification-service and identity-service stubbed in-process, then replays the
+ * workload mix at each configured rate and reports per-endpoint latency percentiles,
+ * throughput and DB connection wait.
+ *
+ * Run with ./gradlew loadTest (requires Docker). Options (system properties, passed
+ * through from -P project properties by the Gradle task):
+ * - loadtest.rates          operations per second for each step (default 50,100,200)
+ * - loadtest.duration       duration of each step (default 60s)
+ * - loadtest.warmup         warmup at the first rate, not reported (default 15s)
+ * - loadtest.users          users created up front, with passkeys (default 500)
+ * - loadtest.mix            operation weights (default otp=10,passkey=15,refresh=25,me=50)
+ * - loadtest.new-user-ratio share of OTP logins by new users (default 0.2)
+ * - loadtest.max-in-flight  client-side cap on outstanding operations (default 2000)
+ * - loadtest.real-limits    keep the production rate limits (default false: the per-phone
+ *                           limits would otherwise throttle the virtual users)
+ * - loadtest.log-level      application log level (default WARN)
+ */
+public final class LoadTestMain {
+
+    private static final String POSTGRES_IMAGE = "postgres:16-alpine";
+    private static final String REDIS_IMAGE = "redis:7-alpine";
+    private static final List<String> OPERATIONS = List.of("otp", "passkey", "refresh", "me");
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Double> rates = Arrays.stream(property("loadtest.rates", "50,100,200").split(","))
+                .map(String::trim)
+                .map(Double::parseDouble)
+                .toList();
+        Duration duration = Duration.parse("PT" + property("loadtest.duration", "60s"));
+        Duration warmup = Duration.parse("PT" + property("loadtest.warmup", "15s"));
+        int users = Integer.parseInt(property("loadtest.users", "500"));
+        Map<String, Integer> mix = parseMix(property("loadtest.mix", "otp=10,passkey=15,refresh=25,me=50"));
+        double newUserRatio = Double.parseDouble(property("loadtest.new-user-ratio", "0.2"));
+        int maxInFlight = Integer.parseInt(property("loadtest.max-in-flight", "2000"));
+        boolean realLimits = Boolean.parseBoolean(property("loadtest.real-limits", "false"));
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse(POSTGRES_IMAGE));
+             GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse(REDIS_IMAGE)).withExposedPorts(6379);
+             ServiceStubs stubs = new ServiceStubs()) {
+            postgres.start();
+            redis.start();
+
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("server.port", 0);
+            properties.put("spring.datasource.url", postgres.getJdbcUrl());
+            properties.put("spring.datasource.username", postgres.getUsername());
+            properties.put("spring.datasource.password", postgres.getPassword());
+            // The migrations assume the schema created by the Node.js service (Prisma)
+            properties.put("spring.flyway.enabled", false);
+            properties.put("spring.jpa.hibernate.ddl-auto", "create");
+            properties.put("spring.data.redis.host", redis.getHost());
+            properties.put("spring.data.redis.port", redis.getMappedPort(6379));
+            properties.put("app.notification-service.base-url", stubs.baseUrl());
+            properties.put("app.identity-service.base-url", stubs.baseUrl());
+            // The generator reports client IPs the way nginx does
+            properties.put("app.security.client-ip-header", "X-Real-IP");
+            properties.put("logging.level.root", property("loadtest.log-level", "WARN"));
+            properties.put("logging.level.com.myapp", property("loadtest.log-level", "WARN"));
+            if (!realLimits) {
+                for (String policy : List.of("otp-send", "otp-verify", "passkey-login")) {
+                    properties.put("app.rate-limit.policy.defaults." + policy + ".capacity", 1_000_000);
+                    properties.put("app.rate-limit.policy.defaults." + policy + ".period", "1m");
+                }
+            }
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    AuthServiceApplication.class, LoadTestInstrumentation.class)
+                    .properties(properties)
+                    .run();
+            try {
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                LoadGenerator generator = new LoadGenerator(baseUrl, stubs, mix, newUserRatio, maxInFlight);
+                try {
+                    run(generator, meterRegistry, stubs, rates, duration, warmup, users);
+                } finally {
+                    generator.close();
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void run(LoadGenerator generator, MeterRegistry meterRegistry, ServiceStubs stubs,
+                            List<Double> rates, Duration duration, Duration warmup, int users)
+            throws InterruptedException, IOException {
+        StringWriter report = new StringWriter();
+        PrintWriter out = new PrintWriter(report);
+
+        long seedStart = System.nanoTime();
+        generator.seed(users, 50);
+        System.out.printf("Seeded %d users in %d ms%n", generator.sessionCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+        if (!warmup.isZero()) {
+            System.out.printf("Warmup: %.0f ops/s for %s%n", rates.get(0), warmup);
+            generator.run(rates.get(0), warmup);
+        }
+
+        for (double rate : rates) {
+            EndpointStats.resetAll();
+            generator.dropped.reset();
+            generator.noSession.reset();
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+            long acquireCount = acquire != null ? acquire.count() : 0;
+            double acquireNanos = acquire != null ? acquire.totalTime(TimeUnit.NANOSECONDS) : 0;
+            long notifications = stubs.notifications();
+
+            System.out.printf("Step: %.0f ops/s for %s%n", rate, duration);
+            long start = System.nanoTime();
+            generator.run(rate, duration);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            out.printf("%n=== %.0f ops/s target, %.1f s ===%n", rate, seconds);
+            out.printf("%-26s %8s %7s %8s %8s %8s %8s %8s %8s | %8s %8s %8s%n",
+                    "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+                    "db p50", "db p99", "db max");
+            for (EndpointStats stats : EndpointStats.snapshot().values()) {
+                Histogram latency = stats.latency;
+                Histogram wait = stats.connectionWait;
+                out.printf("%-26s %8d %7d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f | %8.2f %8.2f %8.2f%n",
+                        stats.endpoint, latency.getTotalCount(), stats.errors.sum(),
+                        latency.getTotalCount() / seconds,
+                        millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                        millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                        millis(latency.getMaxValue()),
+                        millis(wait.getValueAtPercentile(50)), millis(wait.getValueAtPercentile(99)),
+                        millis(wait.getMaxValue()));
+                if (stats.errors.sum() > 0) {
+                    out.printf("%-26s statuses: %s%n", "", stats.statuses);
+                }
+            }
+            if (acquire != null && acquire.count() > acquireCount) {
+                out.printf("Hikari acquire: %d acquisitions, mean %.3f ms, window max %.2f ms%n",
+                        acquire.count() - acquireCount,
+                        (acquire.totalTime(TimeUnit.NANOSECONDS) - acquireNanos) / (acquire.count() - acquireCount) / 1e6,
+                        acquire.max(TimeUnit.MILLISECONDS));
+            }
+            out.printf("Notifications sent: %d, dropped (max in flight): %d, no free session: %d%n",
+                    stubs.notifications() - notifications, generator.dropped.sum(), generator.noSession.sum());
+            out.flush();
+        }
+
+        System.out.print(report);
+        Path file = Path.of(property("loadtest.report-dir", "build/reports/loadtest"))
+                .resolve("loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report.toString());
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid workload mix entry: " + entry);
+            }
+            if (!OPERATIONS.contains(parts[0].trim())) {
+                throw new IllegalArgumentException("Unknown operation in workload mix: " + parts[0] + ", expected one of " + OPERATIONS);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(parts[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix is empty: " + mix);
+        }
+        return weights;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,90 @@
+package com.myapp.authservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-ins for notification-service and identity-service.
+ *
+ * The notification stub captures the OTP of every send request by recipient, so
+ * virtual users can complete OTP logins.
+ */
+final class ServiceStubs implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> otps = new ConcurrentHashMap<>();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder onboardings = new LongAdder();
+    private final HttpServer server;
+
+    ServiceStubs() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/internal/notifications/send", this::notification);
+        server.createContext("/internal/users/onboard", this::onboard);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Wait for the OTP sent to a recipient and consume it.
+     */
+    String awaitOtp(String recipient, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (System.nanoTime() < deadline) {
+            String otp = otps.remove(recipient);
+            if (otp != null) {
+                return otp;
+            }
+            Thread.sleep(5);
+        }
+        return null;
+    }
+
+    long notifications() {
+        return notifications.sum();
+    }
+
+    long onboardings() {
+        return onboardings.sum();
+    }
+
+    private void notification(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonNode request = objectMapper.readTree(body);
+            otps.put(request.path("recipient").asText(), request.path("data").path("otp").asText());
+            notifications.increment();
+        }
+        respond(exchange);
+    }
+
+    private void onboard(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        onboardings.increment();
+        respond(exchange);
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.myapp.authservice.config;
+
+import com.myapp.authservice.repository.OtpCodeRepository;
+import com.myapp.authservice.service.JpaOtpStore;
+import com.myapp.authservice.service.OtpStore;
+import com.myapp.authservice.service.RedisOtpStore;
+import com.myapp.authservice.util.OtpUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * OTP storage selection
+ *
+ * app.otp.store=database (default): otp_codes table
+ * app.otp.store=redis: one Redis key per identifier with TTL, atomic verify-and-consume
+ */
+@Configuration
+public class OtpStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.otp.store", havingValue = "database", matchIfMissing = true)
+    public OtpStore jpaOtpStore(OtpCodeRepository otpCodeRepository) {
+        return new JpaOtpStore(otpCodeRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.otp.store", havingValue = "redis")
+    public OtpStore redisOtpStore(StringRedisTemplate redisTemplate, OtpUtils otpUtils) {
+        return new RedisOtpStore(redisTemplate, otpUtils);
+    }
+}
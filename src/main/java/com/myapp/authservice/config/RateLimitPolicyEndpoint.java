@@ -0,0 +1,49 @@
+package com.myapp.authservice.config;
+
+import com.myapp.authservice.service.RateLimitPolicyRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Runtime rate limit policy management (ADMIN only, see SecurityConfig)
+ *
+ * GET    /actuator/ratelimitpolicies
+ * POST   /actuator/ratelimitpolicies/{policy}  {"capacity": 2, "periodSeconds": 600, "callingCode": "91"}
+ * DELETE /actuator/ratelimitpolicies/{policy}?callingCode=91
+ */
+@Component
+@Endpoint(id = "ratelimitpolicies")
+@RequiredArgsConstructor
+public class RateLimitPolicyEndpoint {
+
+    private final RateLimitPolicyRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> policies() {
+        return Map.of(
+                "version", registry.version(),
+                "policies", registry.policies());
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Selector String policy, long capacity, long periodSeconds,
+                                      @Nullable String callingCode) {
+        registry.update(policy, callingCode, capacity, Duration.ofSeconds(periodSeconds));
+        return policies();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> remove(@Selector String policy, @Nullable String callingCode) {
+        registry.remove(policy, callingCode);
+        return policies();
+    }
+}
@@ -0,0 +1,37 @@
+package com.myapp.authservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limit policies (app.rate-limit.policy)
+ *
+ * defaults:  policy name (otp-send, otp-verify, passkey-login) -> limit
+ * countries: calling code without '+' (e.g. 91) -> policy name -> limit, for phone identifiers
+ *
+ * Runtime overrides made through the ratelimitpolicies actuator endpoint take precedence.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit.policy")
+public class RateLimitPolicyProperties {
+
+    private Map<String, Limit> defaults = new HashMap<>();
+
+    private Map<String, Map<String, Limit>> countries = new HashMap<>();
+
+    /**
+     * Greedy token bucket: capacity tokens, refilled evenly over the period.
+     */
+    @Getter
+    @Setter
+    public static class Limit {
+        private long capacity;
+        private Duration period;
+    }
+}
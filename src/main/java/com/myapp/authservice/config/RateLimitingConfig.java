@@ -1,20 +1,26 @@
 package com.myapp.authservice.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Rate Limiting Configuration using Bucket4j with Redis backend
@@ -22,10 +28,19 @@ import java.time.Duration;
  *
  * Layer 1 (Nginx): IP-based rate limiting
  * Layer 2 (This): Phone/User-based rate limiting + business logic
+ *
+ * Bucket4j keys are spread over app.rate-limit.redis.connections Lettuce connections
+ * (standalone, sentinel via a redis-sentinel:// URI, or cluster), so rate-limit CAS
+ * traffic is not serialized through a single socket.
+ *
+ * Limits are defined by app.rate-limit.policy (see RateLimitPolicyRegistry).
  */
 @Configuration
+@EnableConfigurationProperties(RateLimitPolicyProperties.class)
 public class RateLimitingConfig {
 
+    private static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
     @Value("${spring.data.redis.host}")
     private String redisHost;
 
@@ -35,72 +50,79 @@ public class RateLimitingConfig {
     @Value("${spring.data.redis.password:}")
     private String redisPassword;
 
-    @Bean
-    public RedisClient redisClient() {
-        String redisUrl;
-        if (redisPassword != null && !redisPassword.isBlank()) {
-            redisUrl = String.format("redis://%s@%s:%d", redisPassword, redisHost, redisPort);
-        } else {
-            redisUrl = String.format("redis://%s:%d", redisHost, redisPort);
-        }
-        return RedisClient.create(redisUrl);
-    }
-
-    @Bean
-    public StatefulRedisConnection<String, byte[]> redisConnection(RedisClient redisClient) {
-        return redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
-    }
+    /**
+     * Redis URI(s) for rate limiting, comma separated for cluster seeds.
+     * Empty = spring.data.redis host/port/password. Sentinel: redis-sentinel://host:26379,host2:26379#master
+     */
+    @Value("${app.rate-limit.redis.uri:}")
+    private String redisUri;
 
-    @Bean
-    public ProxyManager<String> proxyManager(StatefulRedisConnection<String, byte[]> connection) {
-        return LettuceBasedProxyManager.builderFor(connection)
-                .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
-                        Duration.ofMinutes(10)))
-                .build();
-    }
+    @Value("${app.rate-limit.redis.mode:standalone}")
+    private String redisMode;
 
     /**
-     * Configuration for OTP send rate limiting
-     * Limit: 3 OTPs per phone number per 10 minutes
-     * This prevents SMS bombing attacks
+     * Number of connections Bucket4j keys are spread over (by key hash).
      */
-    @Bean
-    public BucketConfiguration otpSendConfiguration() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(3)
-                        .refillGreedy(3, Duration.ofMinutes(10))
-                        .build())
-                .build();
-    }
+    @Value("${app.rate-limit.redis.connections:4}")
+    private int connections;
 
     /**
-     * Configuration for OTP verify rate limiting
-     * Limit: 5 attempts per phone number per 5 minutes
-     * This prevents brute force OTP guessing
+     * Lettuce command latency metrics (lettuce.command.completion / firstresponse), tagged
+     * with the local address so every connection gets its own series. Replaces Spring
+     * Boot's default options and applies to the Spring Data Redis connection as well.
      */
     @Bean
-    public BucketConfiguration otpVerifyConfiguration() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(5)
-                        .refillGreedy(5, Duration.ofMinutes(5))
-                        .build())
+    public MicrometerOptions micrometerOptions(
+            @Value("${app.rate-limit.redis.latency-histogram:false}") boolean histogram) {
+        return MicrometerOptions.builder()
+                .histogram(histogram)
+                .localDistinction(true)
                 .build();
     }
 
     /**
-     * Configuration for passkey login rate limiting
-     * Limit: 5 attempts per phone number per 5 minutes
-     * This prevents brute force passkey guessing
+     * Shares Spring Boot's ClientResources (event loops, latency recorder).
+     * Shutting the client down closes all rate-limit connections.
      */
+    @Bean(destroyMethod = "shutdown")
+    public AbstractRedisClient rateLimitRedisClient(ClientResources clientResources) {
+        List<RedisURI> uris = Arrays.stream(defaultUri().split(","))
+                .map(String::trim)
+                .filter(uri -> !uri.isEmpty())
+                .map(RedisURI::create)
+                .toList();
+        if ("cluster".equalsIgnoreCase(redisMode)) {
+            return RedisClusterClient.create(clientResources, uris);
+        }
+        if (uris.size() != 1) {
+            throw new IllegalStateException("app.rate-limit.redis.uri must be a single URI unless mode=cluster");
+        }
+        return RedisClient.create(clientResources, uris.get(0));
+    }
+
     @Bean
-    public BucketConfiguration passkeyLoginConfiguration() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(5)
-                        .refillGreedy(5, Duration.ofMinutes(5))
-                        .build())
-                .build();
+    public ProxyManager<String> proxyManager(AbstractRedisClient rateLimitRedisClient) {
+        List<ProxyManager<String>> shards = new ArrayList<>(connections);
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            LettuceBasedProxyManager.LettuceBasedProxyManagerBuilder<String> builder =
+                    rateLimitRedisClient instanceof RedisClusterClient clusterClient
+                            ? LettuceBasedProxyManager.builderFor(clusterClient.connect(CODEC))
+                            : LettuceBasedProxyManager.builderFor(((RedisClient) rateLimitRedisClient).connect(CODEC));
+            shards.add(builder
+                    .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                            Duration.ofMinutes(10)))
+                    .build());
+        }
+        return shards.size() == 1 ? shards.get(0) : new ShardedProxyManager(shards);
+    }
+
+    private String defaultUri() {
+        if (redisUri != null && !redisUri.isBlank()) {
+            return redisUri;
+        }
+        if (redisPassword != null && !redisPassword.isBlank()) {
+            return String.format("redis://%s@%s:%d", redisPassword, redisHost, redisPort);
+        }
+        return String.format("redis://%s:%d", redisHost, redisPort);
     }
 }
@@ -0,0 +1,51 @@
+package com.myapp.authservice.config;
+
+import com.myapp.authservice.repository.RefreshTokenRepository;
+import com.myapp.authservice.repository.UserRepository;
+import com.myapp.authservice.service.JpaRefreshTokenStore;
+import com.myapp.authservice.service.RedisRefreshTokenStore;
+import com.myapp.authservice.service.RefreshTokenStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Refresh token storage selection
+ *
+ * app.refresh-token.store=postgres (default): refresh_tokens table
+ * app.refresh-token.store=redis: Redis hashes, Postgres kept as an optional write-behind log
+ */
+@Configuration
+public class RefreshTokenStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.refresh-token.store", havingValue = "postgres", matchIfMissing = true)
+    public RefreshTokenStore jpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                                                  UserRepository userRepository) {
+        return new JpaRefreshTokenStore(refreshTokenRepository, userRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.refresh-token.store", havingValue = "redis")
+    public RefreshTokenStore redisRefreshTokenStore(
+            StringRedisTemplate redisTemplate,
+            RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.jwt.refresh-token-expiry-days}") long refreshTokenExpiryDays,
+            @Value("${app.refresh-token.write-behind.enabled:true}") boolean writeBehindEnabled,
+            @Value("${app.refresh-token.write-behind.queue-capacity:10000}") int writeBehindQueue,
+            @Value("${app.refresh-token.migrate-from-postgres:false}") boolean migrateFromPostgres) {
+        RefreshTokenStore writeBehind = writeBehindEnabled
+                ? new JpaRefreshTokenStore(refreshTokenRepository, userRepository)
+                : null;
+        return new RedisRefreshTokenStore(redisTemplate, Duration.ofDays(refreshTokenExpiryDays),
+                writeBehind, new TransactionTemplate(transactionManager), writeBehindQueue, migrateFromPostgres);
+    }
+}
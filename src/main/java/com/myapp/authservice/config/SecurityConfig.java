@@ -63,7 +63,8 @@ public class SecurityConfig {
                         ).permitAll()
                         // Internal service-to-service endpoints
                         .requestMatchers("/internal/**").permitAll()
-                        // Actuator endpoints
+                        // Actuator endpoints (rate limit policy changes are admin only)
+                        .requestMatchers("/actuator/ratelimitpolicies/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         // Swagger/OpenAPI
                         .requestMatchers(
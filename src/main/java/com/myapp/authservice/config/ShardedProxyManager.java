@@ -0,0 +1,223 @@
+package com.myapp.authservice.config;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RecoveryStrategy;
+import io.github.bucket4j.distributed.proxy.RemoteAsyncBucketBuilder;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * ProxyManager spreading keys over several underlying proxy managers (one per Redis
+ * connection) by key hash.
+ *
+ * A key always maps to the same connection, so per-key command ordering is unchanged,
+ * while different keys no longer queue behind each other on a single socket.
+ */
+class ShardedProxyManager implements ProxyManager<String> {
+
+    private final List<ProxyManager<String>> shards;
+
+    ShardedProxyManager(List<ProxyManager<String>> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one proxy manager is required");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    private ProxyManager<String> shard(String key) {
+        return shards.get(Math.floorMod(key.hashCode(), shards.size()));
+    }
+
+    @Override
+    public RemoteBucketBuilder<String> builder() {
+        return new ShardedBucketBuilder();
+    }
+
+    @Override
+    public Optional<BucketConfiguration> getProxyConfiguration(String key) {
+        return shard(key).getProxyConfiguration(key);
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        shard(key).removeProxy(key);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return shards.stream().allMatch(ProxyManager::isAsyncModeSupported);
+    }
+
+    @Override
+    public boolean isExpireAfterWriteSupported() {
+        return shards.stream().allMatch(ProxyManager::isExpireAfterWriteSupported);
+    }
+
+    @Override
+    public AsyncProxyManager<String> asAsync() {
+        if (!isAsyncModeSupported()) {
+            throw new UnsupportedOperationException("Async mode is not supported by all shards");
+        }
+        return new AsyncProxyManager<>() {
+            @Override
+            public RemoteAsyncBucketBuilder<String> builder() {
+                return new ShardedAsyncBucketBuilder();
+            }
+
+            @Override
+            public CompletableFuture<Void> removeProxy(String key) {
+                return shard(key).asAsync().removeProxy(key);
+            }
+
+            @Override
+            public CompletableFuture<Optional<BucketConfiguration>> getProxyConfiguration(String key) {
+                return shard(key).asAsync().getProxyConfiguration(key);
+            }
+        };
+    }
+
+    /**
+     * Builder options, replayed on the shard's own builder once the key is known.
+     */
+    private abstract static class Options<B> {
+        RecoveryStrategy recoveryStrategy;
+        Optimization optimization;
+        Long desiredConfigurationVersion;
+        TokensInheritanceStrategy tokensInheritanceStrategy;
+
+        abstract B withRecoveryStrategy(B builder, RecoveryStrategy recoveryStrategy);
+
+        abstract B withOptimization(B builder, Optimization optimization);
+
+        abstract B withImplicitConfigurationReplacement(B builder, long version, TokensInheritanceStrategy strategy);
+
+        B apply(B builder) {
+            if (recoveryStrategy != null) {
+                builder = withRecoveryStrategy(builder, recoveryStrategy);
+            }
+            if (optimization != null) {
+                builder = withOptimization(builder, optimization);
+            }
+            if (desiredConfigurationVersion != null) {
+                builder = withImplicitConfigurationReplacement(builder,
+                        desiredConfigurationVersion, tokensInheritanceStrategy);
+            }
+            return builder;
+        }
+    }
+
+    private final class ShardedBucketBuilder extends Options<RemoteBucketBuilder<String>>
+            implements RemoteBucketBuilder<String> {
+
+        @Override
+        public RemoteBucketBuilder<String> withRecoveryStrategy(RecoveryStrategy recoveryStrategy) {
+            this.recoveryStrategy = recoveryStrategy;
+            return this;
+        }
+
+        @Override
+        public RemoteBucketBuilder<String> withOptimization(Optimization optimization) {
+            this.optimization = optimization;
+            return this;
+        }
+
+        @Override
+        public RemoteBucketBuilder<String> withImplicitConfigurationReplacement(
+                long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy) {
+            this.desiredConfigurationVersion = desiredConfigurationVersion;
+            this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+            return this;
+        }
+
+        @Override
+        public BucketProxy build(String key, Supplier<BucketConfiguration> configSupplier) {
+            return apply(shard(key).builder()).build(key, configSupplier);
+        }
+
+        @Override
+        public BucketProxy build(String key, BucketConfiguration configuration) {
+            return apply(shard(key).builder()).build(key, configuration);
+        }
+
+        @Override
+        RemoteBucketBuilder<String> withRecoveryStrategy(RemoteBucketBuilder<String> builder,
+                                                         RecoveryStrategy recoveryStrategy) {
+            return builder.withRecoveryStrategy(recoveryStrategy);
+        }
+
+        @Override
+        RemoteBucketBuilder<String> withOptimization(RemoteBucketBuilder<String> builder, Optimization optimization) {
+            return builder.withOptimization(optimization);
+        }
+
+        @Override
+        RemoteBucketBuilder<String> withImplicitConfigurationReplacement(RemoteBucketBuilder<String> builder,
+                                                                         long version,
+                                                                         TokensInheritanceStrategy strategy) {
+            return builder.withImplicitConfigurationReplacement(version, strategy);
+        }
+    }
+
+    private final class ShardedAsyncBucketBuilder extends Options<RemoteAsyncBucketBuilder<String>>
+            implements RemoteAsyncBucketBuilder<String> {
+
+        @Override
+        public RemoteAsyncBucketBuilder<String> withRecoveryStrategy(RecoveryStrategy recoveryStrategy) {
+            this.recoveryStrategy = recoveryStrategy;
+            return this;
+        }
+
+        @Override
+        public RemoteAsyncBucketBuilder<String> withOptimization(Optimization optimization) {
+            this.optimization = optimization;
+            return this;
+        }
+
+        @Override
+        public RemoteAsyncBucketBuilder<String> withImplicitConfigurationReplacement(
+                long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy) {
+            this.desiredConfigurationVersion = desiredConfigurationVersion;
+            this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+            return this;
+        }
+
+        @Override
+        public AsyncBucketProxy build(String key, BucketConfiguration configuration) {
+            return apply(shard(key).asAsync().builder()).build(key, configuration);
+        }
+
+        @Override
+        public AsyncBucketProxy build(String key,
+                                      Supplier<CompletableFuture<BucketConfiguration>> configSupplier) {
+            return apply(shard(key).asAsync().builder()).build(key, configSupplier);
+        }
+
+        @Override
+        RemoteAsyncBucketBuilder<String> withRecoveryStrategy(RemoteAsyncBucketBuilder<String> builder,
+                                                              RecoveryStrategy recoveryStrategy) {
+            return builder.withRecoveryStrategy(recoveryStrategy);
+        }
+
+        @Override
+        RemoteAsyncBucketBuilder<String> withOptimization(RemoteAsyncBucketBuilder<String> builder,
+                                                          Optimization optimization) {
+            return builder.withOptimization(optimization);
+        }
+
+        @Override
+        RemoteAsyncBucketBuilder<String> withImplicitConfigurationReplacement(
+                RemoteAsyncBucketBuilder<String> builder, long version, TokensInheritanceStrategy strategy) {
+            return builder.withImplicitConfigurationReplacement(version, strategy);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.myapp.authservice.config;
+
+import com.myapp.authservice.service.UserCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribes to user cache invalidations published by any instance
+ * (see UserCache), so local cache entries are dropped cluster-wide.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.user-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer userCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                       UserCache userCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userCache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,197 @@
+package com.myapp.authservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Virtual thread execution mode (spring.threads.virtual.enabled=true)
+ *
+ * Spring Boot itself switches Tomcat request handling, @Scheduled and the application
+ * task executor to virtual threads. This configuration adds what that mode needs here:
+ *
+ * 1. Connection admission: thousands of virtual threads must not all queue inside
+ *    Hikari. A fair semaphore sized to the pool admits at most maximum-pool-size
+ *    borrowers; the rest park cheaply. Waiting for the permit and for the connection
+ *    share one connection-timeout budget.
+ * 2. Pinning diagnostics: a JFR stream on jdk.VirtualThreadPinned logs and counts
+ *    virtual threads pinned to their carrier (synchronized blocks in JDBC/Lettuce
+ *    paths) for longer than app.virtual-threads.pinned-threshold.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    log.info("Virtual threads enabled: limiting concurrent connection borrowers to {}",
+                            hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(meterRegistry, threshold);
+    }
+
+    /**
+     * DataSource that admits at most N concurrent connection holders.
+     * The permit is released when the borrowed connection is closed.
+     */
+    static class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+        private final HikariDataSource hikari;
+        private final Semaphore permits;
+
+        ConnectionLimitingDataSource(HikariDataSource hikari, int maxConnections) {
+            super(hikari);
+            this.hikari = hikari;
+            this.permits = new Semaphore(maxConnections, true);
+        }
+
+        /**
+         * Hikari gets whatever is left of connection-timeout after the permit wait, so a
+         * borrower gives up after connection-timeout in total, not up to twice that.
+         */
+        @Override
+        public Connection getConnection() throws SQLException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hikari.getConnectionTimeout());
+            acquire(hikari.getConnectionTimeout());
+            try {
+                long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                // The pool is created by the first borrow (with the full timeout); a closed
+                // data source is left to report itself
+                Connection connection = !hikari.isClosed() && hikari.getHikariPoolMXBean() instanceof HikariPool pool
+                        ? pool.getConnection(remainingMillis)
+                        : hikari.getConnection();
+                return releasingOnClose(connection);
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire(hikari.getConnectionTimeout());
+            try {
+                return releasingOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire(long timeoutMillis) throws SQLException {
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("Timed out after " + timeoutMillis
+                            + "ms waiting for a database connection permit");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotGetJdbcConnectionException("Interrupted waiting for a database connection permit");
+            }
+        }
+
+        private Connection releasingOnClose(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        // Identity of the proxy itself (the target is never equal to its proxy)
+                        if ("equals".equals(method.getName())) {
+                            return proxy == args[0];
+                        }
+                        if ("hashCode".equals(method.getName())) {
+                            return System.identityHashCode(proxy);
+                        }
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Streams jdk.VirtualThreadPinned JFR events, logging the top frames and
+     * counting them in jvm.threads.virtual.pinned.
+     */
+    static class PinnedThreadMonitor implements DisposableBean {
+
+        private static final int LOGGED_FRAMES = 8;
+
+        private final RecordingStream stream;
+
+        PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+            this.stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", event -> {
+                meterRegistry.counter("jvm.threads.virtual.pinned").increment();
+                if (log.isWarnEnabled() && event.getStackTrace() != null) {
+                    List<RecordedFrame> frames = event.getStackTrace().getFrames();
+                    StringBuilder top = new StringBuilder();
+                    for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+                        RecordedFrame frame = frames.get(i);
+                        top.append("\n\tat ").append(frame.getMethod().getType().getName())
+                                .append('.').append(frame.getMethod().getName())
+                                .append(':').append(frame.getLineNumber());
+                    }
+                    log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), top);
+                }
+            });
+            stream.startAsync();
+            log.info("Virtual thread pinning monitor started (threshold={} ms)", threshold.toMillis());
+        }
+
+        @Override
+        public void destroy() {
+            stream.close();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.myapp.authservice.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,14 +16,15 @@ import org.springframework.web.filter.ForwardedHeaderFilter;
 @Configuration
 public class WebConfig {
 
-    @Value("${server.forward-headers-strategy:NONE}")
-    private String forwardHeadersStrategy;
-
     /**
      * Register ForwardedHeaderFilter to process X-Forwarded-* headers
      * This ensures getRemoteAddr() returns the real client IP, not the proxy IP
+     *
+     * Only with server.forward-headers-strategy=FRAMEWORK (i.e. behind a proxy): otherwise a
+     * client-supplied X-Forwarded-For would become getRemoteAddr().
      */
     @Bean
+    @ConditionalOnProperty(name = "server.forward-headers-strategy", havingValue = "framework")
     public FilterRegistrationBean<ForwardedHeaderFilter> forwardedHeaderFilter() {
         FilterRegistrationBean<ForwardedHeaderFilter> filterRegBean = new FilterRegistrationBean<>();
         filterRegBean.setFilter(new ForwardedHeaderFilter());
@@ -4,10 +4,13 @@ import com.myapp.authservice.dto.request.*;
 import com.myapp.authservice.dto.response.*;
 import com.myapp.authservice.security.AuthenticatedUser;
 import com.myapp.authservice.service.AuthService;
+import com.myapp.authservice.util.TokenHasher;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +23,9 @@ public class AuthController {
 
     private final AuthService authService;
 
+    @Value("${app.security.client-ip-header:}")
+    private String clientIpHeader;
+
     /**
      * Send OTP to phone number or email.
      * At least one of phone or email must be provided. Phone takes priority.
@@ -179,6 +185,9 @@ public class AuthController {
     /**
      * Get current user details
      * GET /auth/me
+     *
+     * Served from the user cache without a DB transaction. Responses carry an ETag;
+     * Spring MVC answers a matching If-None-Match with 304 Not Modified and no body.
      */
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(
@@ -186,7 +195,11 @@ public class AuthController {
 
         UserResponse response = authService.getCurrentUser(user.getUserId());
 
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok()
+                // Clients may store the response to revalidate it, but never reuse it unchecked
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etagOf(response))
+                .body(ApiResponse.success(response));
     }
 
     /**
@@ -216,17 +229,31 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Strong ETag over every field of the profile response.
+     */
+    private String etagOf(UserResponse response) {
+        String fields = String.join("|", response.getId(), response.getPhone(),
+                String.valueOf(response.getName()), String.valueOf(response.getEmail()),
+                String.valueOf(response.getRole()), String.valueOf(response.getStatus()),
+                String.valueOf(response.getCreatedAt()), String.valueOf(response.getUpdatedAt()));
+        return "\"" + TokenHasher.sha256Base64Url(fields).substring(0, 27) + "\"";
+    }
+
     /**
      * Extract client IP address from request
+     *
+     * Only the header our reverse proxy overwrites (app.security.client-ip-header, set in the
+     * nginx deployment, where nginx sets X-Real-IP to the peer address) is trusted; without
+     * it, the peer address. X-Forwarded-For is not: its leftmost entry is
+     * whatever the client sent, and the IP keys the per-IP rate limit buckets.
      */
     private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+        if (!clientIpHeader.isBlank()) {
+            String proxyIp = request.getHeader(clientIpHeader);
+            if (proxyIp != null && !proxyIp.isBlank()) {
+                return proxyIp.trim();
+            }
         }
         return request.getRemoteAddr();
     }
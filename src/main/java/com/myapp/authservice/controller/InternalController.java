@@ -1,6 +1,7 @@
 package com.myapp.authservice.controller;
 
 import com.myapp.authservice.dto.request.ResolveOrCreateUserRequest;
+import com.myapp.authservice.dto.request.ResolveOrCreateUsersBatchRequest;
 import com.myapp.authservice.dto.response.ApiResponse;
 import com.myapp.authservice.dto.response.ResolveOrCreateUserResponse;
 import com.myapp.authservice.service.InternalUserService;
@@ -10,6 +11,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Internal API endpoints for service-to-service communication.
  * Called by identity-service to resolve or create placeholder users.
@@ -43,6 +46,23 @@ public class InternalController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * Resolve or create up to 1000 users in one call.
+     * Called by identity-service when importing many contacts at once.
+     *
+     * Returns one result per requested user, in request order.
+     */
+    @PostMapping("/users/resolve-or-create/batch")
+    public ResponseEntity<ApiResponse<List<ResolveOrCreateUserResponse>>> resolveOrCreateUsers(
+            @Valid @RequestBody ResolveOrCreateUsersBatchRequest request) {
+
+        log.info("POST /internal/users/resolve-or-create/batch - users={}", request.getUsers().size());
+
+        List<ResolveOrCreateUserResponse> response = internalUserService.resolveOrCreateUsers(request.getUsers());
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     private String maskIdentifier(String identifier) {
         if (identifier == null || identifier.length() < 4) return "***";
         if (identifier.contains("@")) {
@@ -9,7 +9,6 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_refresh_token", columnList = "token"),
     @Index(name = "idx_refresh_user_id", columnList = "user_id"),
     @Index(name = "idx_refresh_expires_at", columnList = "expires_at")
 })
@@ -27,8 +26,8 @@ public class RefreshToken {
     @Column(length = 30)
     private String id; // CUID generated in service layer
 
-    @Column(unique = true, nullable = false, length = 500)
-    private String token;
+    @Column(name = "token_hash", unique = true, nullable = false, length = 32)
+    private byte[] tokenHash; // SHA-256 of the JWT, see TokenHasher
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "userId", nullable = false)
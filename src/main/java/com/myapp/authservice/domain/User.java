@@ -9,8 +9,6 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
 @Table(name = "users", indexes = {
@@ -23,7 +21,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"refreshTokens", "otpCodes", "auditLogs"})
+@ToString
 @EqualsAndHashCode(of = "id")
 public class User {
 
@@ -34,6 +32,12 @@ public class User {
     @Column(unique = true, nullable = false, length = 20)
     private String phone;
 
+    // Last 10 digits of the phone, for matching numbers sent with a different or no
+    // country code (idx_user_phone_national_10). Set by a database trigger from phone (V10)
+    @Column(name = "phone_national_10", length = 10, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String phoneNational10;
+
     @Column(nullable = false)
     private String name;
 
@@ -66,16 +70,21 @@ public class User {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
-    // Relationships - use lazy loading for performance
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    @Builder.Default
-    private List<RefreshToken> refreshTokens = new ArrayList<>();
-
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    @Builder.Default
-    private List<OtpCode> otpCodes = new ArrayList<>();
-
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
-    @Builder.Default
-    private List<AuditLog> auditLogs = new ArrayList<>();
+    /**
+     * Last 10 digits of a phone number, or null if it has fewer digits or is the
+     * placeholder phone of an email-only user (+0000...). Same rule as the
+     * users_phone_national_10() SQL function, for building lookups.
+     */
+    public static String nationalNumber(String phone) {
+        if (phone == null || phone.startsWith("+0000")) {
+            return null;
+        }
+        String digits = phone.replaceAll("[^\\d]", "");
+        return digits.length() >= 10 ? digits.substring(digits.length() - 10) : null;
+    }
+
+    // No collections of refresh tokens, OTP codes or audit logs: they are unbounded (a long-lived
+    // user can have 100k+ audit rows) and would be walked by dirty checking and cascades.
+    // The children reference the user one way (@ManyToOne); deleting a user is left to the
+    // foreign keys (ON DELETE CASCADE for tokens and OTP codes, SET NULL for audit logs).
 }
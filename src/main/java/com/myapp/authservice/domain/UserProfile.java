@@ -0,0 +1,19 @@
+package com.myapp.authservice.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable read-only view of a user (no passkey hash, no relationships).
+ * Loaded with a constructor projection, so no User entity is hydrated, and cached
+ * by UserCache.
+ */
+public record UserProfile(String id, String phone, String name, String email, Role role,
+                          UserStatus status, boolean verified,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getId(), user.getPhone(), user.getName(), user.getEmail(),
+                user.getRole(), user.getStatus(), user.isVerified(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
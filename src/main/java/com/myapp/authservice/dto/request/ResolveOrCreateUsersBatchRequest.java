@@ -0,0 +1,26 @@
+package com.myapp.authservice.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request from identity-service to resolve or create many users (e.g. trip contacts) at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolveOrCreateUsersBatchRequest {
+
+    @NotEmpty(message = "At least one user is required")
+    @Size(max = 1000, message = "At most 1000 users per batch")
+    @Valid
+    private List<ResolveOrCreateUserRequest> users;
+}
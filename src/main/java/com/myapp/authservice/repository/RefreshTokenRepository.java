@@ -17,17 +17,17 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
 
     /**
-     * Find refresh token by token string
+     * Find refresh token by token digest
      * Matches: prisma.refreshToken.findUnique({ where: { token }, include: { user: true } })
      */
-    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.token = :token")
-    Optional<RefreshToken> findByTokenWithUser(@Param("token") String token);
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") byte[] tokenHash);
 
     /**
-     * Find refresh token by token string (without user)
+     * Find refresh token by token digest (without user)
      * Matches: prisma.refreshToken.findUnique({ where: { token } })
      */
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
     /**
      * Delete all refresh tokens for a user
@@ -40,10 +40,12 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Stri
     /**
      * Delete specific refresh token for a user
      * Matches: prisma.refreshToken.deleteMany({ where: { userId, token } })
+     *
+     * @return Number of deleted tokens (0 if not found or already revoked)
      */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.token = :token")
-    void deleteByUserIdAndToken(@Param("userId") String userId, @Param("token") String token);
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.tokenHash = :tokenHash")
+    int deleteByUserIdAndTokenHash(@Param("userId") String userId, @Param("tokenHash") byte[] tokenHash);
 
     /**
      * Delete expired refresh tokens (cleanup job)
@@ -1,9 +1,16 @@
 package com.myapp.authservice.repository;
 
 import com.myapp.authservice.domain.User;
+import com.myapp.authservice.domain.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,9 +37,73 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmailIgnoreCase(String email);
 
     /**
-     * Find user by last N digits of phone number.
-     * Used when identity-service sends phone without country code.
+     * Find user by the last 10 digits of the phone number (indexed phone_national_10).
+     * Used when identity-service sends phone without country code. Several users can
+     * share the digits: verified users win over placeholders, then the oldest.
      */
-    @org.springframework.data.jpa.repository.Query("SELECT u FROM User u WHERE u.phone LIKE %:suffix")
-    Optional<User> findByPhoneSuffix(@org.springframework.data.repository.query.Param("suffix") String suffix);
+    Optional<User> findFirstByPhoneNational10OrderByIsVerifiedDescCreatedAtAsc(String phoneNational10);
+
+    /**
+     * Read-only profile by id / phone / lower-case email, as a constructor projection
+     * (no entity hydration, nothing enters the persistence context).
+     */
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") String id);
+
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE u.phone = :phone")
+    Optional<UserProfile> findProfileByPhone(@Param("phone") String phone);
+
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE lower(u.email) = :email")
+    Optional<UserProfile> findProfileByEmail(@Param("email") String email);
+
+    /**
+     * Batch variants of the profile lookups, for resolving many contacts in one query each.
+     */
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE u.phone IN :phones")
+    List<UserProfile> findProfilesByPhoneIn(@Param("phones") Collection<String> phones);
+
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE lower(u.email) IN :emails")
+    List<UserProfile> findProfilesByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT new com.myapp.authservice.domain.UserProfile(u.id, u.phone, u.name, u.email, u.role, "
+            + "u.status, u.isVerified, u.createdAt, u.updatedAt) FROM User u WHERE u.phoneNational10 IN :suffixes")
+    List<UserProfile> findProfilesByPhoneNational10In(@Param("suffixes") Collection<String> suffixes);
+
+    /**
+     * Insert unverified placeholder users in a single statement, skipping every row whose
+     * phone (or id) is already taken. Returns the ids of the inserted rows; a row missing
+     * from the result lost the conflict. Unlike save() plus catching the unique violation,
+     * a conflict raises no error, so the surrounding transaction stays usable for the
+     * fallback lookup.
+     *
+     * Native SQL against the Prisma schema: quoted camelCase timestamp columns and the
+     * "Role" / "UserStatus" enum types.
+     *
+     * @param rows JSON array of {"id", "phone", "name", "email"} objects, inserted in phone order
+     */
+    @Query(value = "INSERT INTO users (id, phone, name, email, role, status, is_verified, \"createdAt\", \"updatedAt\") "
+            + "SELECT r.id, r.phone, r.name, r.email, CAST('USER' AS \"Role\"), CAST('ACTIVE' AS \"UserStatus\"), "
+            + "false, :now, :now "
+            + "FROM jsonb_to_recordset(CAST(:rows AS jsonb)) "
+            + "AS r(id VARCHAR(30), phone VARCHAR(20), name VARCHAR(255), email VARCHAR(100)) "
+            + "ORDER BY r.phone "
+            + "ON CONFLICT DO NOTHING RETURNING id", nativeQuery = true)
+    List<String> insertPlaceholdersIfAbsent(@Param("rows") String rows, @Param("now") LocalDateTime now);
+
+    /**
+     * Replace the passkey hash only if it is still the one that was verified
+     * (a concurrent passkey change wins). Used for strength upgrades on login,
+     * so updatedAt is deliberately left alone.
+     */
+    @Modifying
+    @Query(
+            "UPDATE User u SET u.passkeyHash = :newHash WHERE u.id = :id AND u.passkeyHash = :oldHash")
+    int updatePasskeyHash(@Param("id") String id,
+                          @Param("oldHash") String oldHash,
+                          @Param("newHash") String newHash);
 }
@@ -0,0 +1,197 @@
+package com.myapp.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lifecycle of the monthly audit_logs partitions (see V9 migration).
+ *
+ * - Pre-creates partitions for the current month and app.audit.partitions.months-ahead
+ *   months, so inserts never fall into the default partition. Months already covered
+ *   by another partition (audit_logs_legacy reaches past the month V9 ran in) are skipped
+ * - Detaches (and optionally drops) partitions whose whole range is older than
+ *   app.audit.partitions.retention-months, so retention is a metadata operation
+ *   instead of a large DELETE
+ *
+ * Runs at startup and daily. A transaction-scoped advisory lock makes sure only one
+ * instance does the work. Skipped when audit_logs is not partitioned.
+ */
+@Slf4j
+@Component
+public class AuditPartitionManager {
+
+    private static final String PARENT = "audit_logs";
+    private static final long ADVISORY_LOCK_KEY = 0x61756469745f7074L; // "audit_pt"
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern LOWER_BOUND = Pattern.compile("FROM \\('([^']+)'\\)");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.audit.partitions.enabled:true}") boolean enabled,
+                                 @Value("${app.audit.partitions.months-ahead:3}") int monthsAhead,
+                                 @Value("${app.audit.partitions.retention-months:12}") int retentionMonths,
+                                 @Value("${app.audit.partitions.drop-detached:true}") boolean dropDetached) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Scheduled partition maintenance
+     */
+    @Scheduled(cron = "${app.audit.partitions.cron:0 15 0 * * *}") // Daily at 00:15
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject(
+                        "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Audit partition maintenance running elsewhere, skipping");
+                    return;
+                }
+                if (!isPartitioned()) {
+                    log.debug("{} is not partitioned, skipping partition maintenance", PARENT);
+                    return;
+                }
+                int created = createUpcomingPartitions();
+                int retired = retireExpiredPartitions();
+                log.info("Audit partition maintenance completed: {} created, {} retired", created, retired);
+            });
+        } catch (Exception e) {
+            log.error("Audit partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                "JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace)",
+                Boolean.class, PARENT);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private int createUpcomingPartitions() {
+        List<Partition> partitions = listPartitions();
+        int created = 0;
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = PARENT + "_p" + month.format(SUFFIX);
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+            if (Boolean.TRUE.equals(exists)
+                    || partitions.stream().anyMatch(partition -> partition.overlaps(month))) {
+                continue;
+            }
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE \"%s\" PARTITION OF \"%s\" FOR VALUES FROM ('%s') TO ('%s')",
+                    name, PARENT, month.atDay(1), month.plusMonths(1).atDay(1)));
+            log.info("Created audit partition {}", name);
+            created++;
+        }
+        return created;
+    }
+
+    private int retireExpiredPartitions() {
+        LocalDate cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1);
+
+        int retired = 0;
+        for (Partition partition : listPartitions()) {
+            LocalDateTime upperBound = partition.upperBound();
+            // Default partition has no upper bound and is never retired
+            if (upperBound == null || upperBound.toLocalDate().isAfter(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.execute(String.format(
+                    "ALTER TABLE \"%s\" DETACH PARTITION \"%s\"", PARENT, partition.name()));
+            if (dropDetached) {
+                jdbcTemplate.execute(String.format("DROP TABLE \"%s\"", partition.name()));
+            }
+            log.info("Retired audit partition {} (upper bound {}, dropped={})",
+                    partition.name(), upperBound, dropDetached);
+            retired++;
+        }
+        return retired;
+    }
+
+    private List<Partition> listPartitions() {
+        return jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? AND p.relnamespace = current_schema()::regnamespace",
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2)),
+                PARENT);
+    }
+
+    private record Partition(String name, String bound) {
+
+        /**
+         * @return null for MINVALUE (and the default partition)
+         */
+        LocalDateTime lowerBound() {
+            return parse(LOWER_BOUND.matcher(bound));
+        }
+
+        /**
+         * @return null for the default partition
+         */
+        LocalDateTime upperBound() {
+            return parse(UPPER_BOUND.matcher(bound));
+        }
+
+        /**
+         * Whether this range partition shares any time with the month (never for the default partition).
+         */
+        boolean overlaps(YearMonth month) {
+            LocalDateTime upper = upperBound();
+            LocalDateTime lower = lowerBound();
+            return upper != null && upper.isAfter(month.atDay(1).atStartOfDay())
+                    && (lower == null || lower.isBefore(month.plusMonths(1).atDay(1).atStartOfDay()));
+        }
+
+        private static LocalDateTime parse(Matcher matcher) {
+            if (!matcher.find()) {
+                return null;
+            }
+            // "yyyy-MM-dd HH:mm:ss[.SSS][+zz]" -> date and time part only
+            String value = matcher.group(1);
+            return LocalDateTime.parse(value.substring(0, Math.min(19, value.length())).replace(' ', 'T'));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.domain.AuditAction;
+import com.myapp.authservice.domain.AuditLog;
+import com.myapp.authservice.domain.User;
+import com.myapp.authservice.util.CuidGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, batched audit log writer.
+ *
+ * Events are enqueued into a bounded buffer and written by a dedicated writer thread
+ * in batches (one transaction, JDBC-batched inserts), so business transactions no
+ * longer pay for audit inserts while holding a pooled connection.
+ *
+ * Modes (app.audit.mode):
+ * - async: every event goes through the buffer
+ * - sync-outside-transaction: a failure event (success = false) recorded by a caller
+ *   without a transaction is written before record() returns. Inside a transaction it
+ *   is enqueued, exactly as in async mode: the failures recorded here are followed by
+ *   an exception that rolls the caller's transaction back, so writing on its connection
+ *   would discard them, and a second connection per failing request can exhaust the pool
+ *   (a burst of bad OTPs would wait on itself). Enqueued failures survive the rollback
+ *   and are written within one flush interval, but are lost if the process dies first.
+ *   Formerly named sync-on-failure, which is still accepted.
+ *
+ * Success events are enqueued after the surrounding transaction commits (they may
+ * reference a user created in it, and must not outlive a rollback). When the buffer
+ * is full a caller without a transaction writes its event synchronously (backpressure
+ * instead of loss). A caller that holds a connection, including the afterCommit
+ * callback, waits up to one flush interval for space and then drops the event
+ * (audit.events.dropped) rather than take a second connection. The buffer is drained
+ * on shutdown.
+ *
+ * Note: createdAt is set by JPA auditing at write time, at most one flush interval
+ * after the event.
+ */
+@Slf4j
+@Component
+public class AuditSink {
+
+    public enum Mode {
+        ASYNC,
+        SYNC_OUTSIDE_TRANSACTION;
+
+        static Mode parse(String value) {
+            String name = value.trim().toUpperCase().replace('-', '_');
+            return name.equals("SYNC_ON_FAILURE") ? SYNC_OUTSIDE_TRANSACTION : valueOf(name);
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<Event> queue;
+
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter overflowCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditSink(EntityManager entityManager,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.audit.mode:sync-outside-transaction}") String mode,
+                     @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                     @Value("${app.audit.batch-size:100}") int batchSize,
+                     @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = Mode.parse(mode);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        meterRegistry.gauge("audit.queue.size", queue, BlockingQueue::size);
+        meterRegistry.gauge("audit.queue.remaining", queue, BlockingQueue::remainingCapacity);
+        this.writtenCounter = meterRegistry.counter("audit.events.written");
+        this.failedCounter = meterRegistry.counter("audit.events.failed");
+        this.overflowCounter = meterRegistry.counter("audit.events.overflow");
+        this.droppedCounter = meterRegistry.counter("audit.events.dropped");
+        this.flushTimer = meterRegistry.timer("audit.flush");
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit sink started: mode={}, capacity={}, batchSize={}",
+                mode, queue.remainingCapacity(), batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            // Writer did not finish in time; flush the rest on the shutdown thread
+            List<Event> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            write(remaining);
+        }
+        log.info("Audit sink stopped");
+    }
+
+    /**
+     * Record an audit event.
+     *
+     * @param userId User ID (null for anonymous events such as OTP_SENT)
+     */
+    public void record(String userId, AuditAction action, String phone,
+                       String ipAddress, String userAgent,
+                       Map<String, Object> metadata, boolean success) {
+        Event event = new Event(userId, action, phone, ipAddress, userAgent, metadata, success);
+
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+
+        if (!success) {
+            if (mode == Mode.SYNC_OUTSIDE_TRANSACTION && !inTransaction) {
+                write(List.of(event));
+            } else {
+                enqueue(event, inTransaction);
+            }
+            return;
+        }
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // The committed transaction's connection is only released after this callback
+                    enqueue(event, true);
+                }
+            });
+        } else {
+            enqueue(event, false);
+        }
+    }
+
+    private void enqueue(Event event, boolean connectionHeld) {
+        if (queue.offer(event)) {
+            return;
+        }
+        overflowCounter.increment();
+        if (!connectionHeld) {
+            write(List.of(event));
+            return;
+        }
+        try {
+            if (queue.offer(event, flushIntervalMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        log.warn("Audit buffer full, dropped {} event", event.action());
+    }
+
+    private void runWriter() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Event> events) {
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Event event : events) {
+                    entityManager.persist(toEntity(event));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            writtenCounter.increment(events.size());
+        } catch (Exception e) {
+            if (events.size() > 1) {
+                // Isolate the bad row instead of losing the whole batch
+                log.warn("Audit batch of {} failed, retrying individually: {}", events.size(), e.getMessage());
+                events.forEach(event -> write(List.of(event)));
+                return;
+            }
+            failedCounter.increment();
+            log.error("Failed to write audit event {}: {}", events.get(0).action(), e.getMessage());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private AuditLog toEntity(Event event) {
+        return AuditLog.builder()
+                .id(CuidGenerator.generate())
+                .user(event.userId() != null ? entityManager.getReference(User.class, event.userId()) : null)
+                .action(event.action())
+                .phone(event.phone())
+                .ipAddress(event.ipAddress())
+                .userAgent(event.userAgent())
+                .metadata(event.metadata())
+                .success(event.success())
+                .build();
+    }
+
+    private record Event(String userId, AuditAction action, String phone,
+                         String ipAddress, String userAgent,
+                         Map<String, Object> metadata, boolean success) {
+    }
+}
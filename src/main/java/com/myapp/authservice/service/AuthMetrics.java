@@ -0,0 +1,192 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.domain.AuditAction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timers for the login and refresh flows.
+ *
+ * Metrics:
+ * - auth.stage{operation, stage}: time spent in each stage (rate-limit check, OTP lookup,
+ *   user upsert, token mint, ...), so a p99 spike can be attributed to one stage
+ * - auth.operation{operation, outcome, reason}: end-to-end time of the service call,
+ *   including the commit (flush of pending writes) when it runs in a transaction
+ * - auth.failures{operation, reason}: failed calls; the reason is the audited
+ *   {@link AuditAction} (e.g. OTP_FAILED) or, for unaudited failures, the exception type
+ *
+ * Timers publish percentile histograms (app.metrics.auth.percentile-histogram), which is
+ * what Prometheus exemplars attach to: with tracing enabled every bucket carries the
+ * trace id of a recent sample.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Operation {
+        VERIFY_OTP("verify-otp"),
+        PASSKEY_LOGIN("passkey-login"),
+        REFRESH("refresh");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Stage {
+        RATE_LIMIT("rate-limit"),
+        OTP_LOOKUP("otp-lookup"),
+        USER_LOOKUP("user-lookup"),
+        USER_UPSERT("user-upsert"),
+        PASSKEY_MATCH("passkey-match"),
+        TOKEN_VERIFY("token-verify"),
+        TOKEN_MINT("token-mint"),
+        REFRESH_PERSIST("refresh-persist"),
+        AUDIT_WRITE("audit-write"),
+        COMMIT("commit"),
+        // Enqueueing outbound calls; the HTTP calls themselves are http.client.requests
+        OUTBOUND("outbound");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry,
+                       @Value("${app.metrics.auth.percentile-histogram:true}") boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Start timing one service call.
+     */
+    public Tracker track(Operation operation) {
+        return new Tracker(operation, Timer.start(meterRegistry));
+    }
+
+    private Timer stageTimer(Operation operation, Stage stage) {
+        return stageTimers.computeIfAbsent(operation.tag + ':' + stage.tag, k -> Timer.builder("auth.stage")
+                .description("Time spent in one stage of an authentication flow")
+                .tag("operation", operation.tag)
+                .tag("stage", stage.tag)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Timing of one service call: stage timers, then exactly one of success or failure.
+     */
+    public final class Tracker {
+
+        private final Operation operation;
+        private final Timer.Sample sample;
+        private String reason;
+        private boolean finished;
+
+        private Tracker(Operation operation, Timer.Sample sample) {
+            this.operation = operation;
+            this.sample = sample;
+        }
+
+        public <T> T time(Stage stage, Supplier<T> work) {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                stageTimer(operation, stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public void time(Stage stage, Runnable work) {
+            time(stage, () -> {
+                work.run();
+                return null;
+            });
+        }
+
+        /**
+         * Record the audited reason of the failure about to be thrown.
+         */
+        public void failed(AuditAction action) {
+            this.reason = action.name();
+        }
+
+        /**
+         * The call returned normally. Inside a transaction the operation only counts as
+         * successful once the commit went through, and the commit is timed as a stage.
+         */
+        public void success() {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                stop("success", "none");
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long commitStart;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitStart = System.nanoTime();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (commitStart != 0) {
+                        stageTimer(operation, Stage.COMMIT).record(System.nanoTime() - commitStart, TimeUnit.NANOSECONDS);
+                    }
+                    if (status == STATUS_COMMITTED) {
+                        stop("success", "none");
+                    } else {
+                        fail("Rollback");
+                    }
+                }
+            });
+        }
+
+        public void failure(Throwable error) {
+            fail(reason != null ? reason : error.getClass().getSimpleName());
+        }
+
+        private void fail(String failureReason) {
+            if (finished) {
+                // Already recorded, e.g. as a rollback before the exception reached the caller
+                return;
+            }
+            Counter.builder("auth.failures")
+                    .description("Failed authentication calls by reason")
+                    .tag("operation", operation.tag)
+                    .tag("reason", failureReason)
+                    .register(meterRegistry)
+                    .increment();
+            stop("failure", failureReason);
+        }
+
+        private void stop(String outcome, String failureReason) {
+            finished = true;
+            sample.stop(Timer.builder("auth.operation")
+                    .description("End-to-end time of an authentication call")
+                    .tag("operation", operation.tag)
+                    .tag("outcome", outcome)
+                    .tag("reason", failureReason)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -7,11 +7,11 @@ import com.myapp.authservice.dto.response.TokenResponse;
 import com.myapp.authservice.dto.response.UserResponse;
 import com.myapp.authservice.exception.BadRequestException;
 import com.myapp.authservice.exception.NotFoundException;
+import com.myapp.authservice.exception.RateLimitExceededException;
 import com.myapp.authservice.exception.UnauthorizedException;
-import com.myapp.authservice.repository.AuditLogRepository;
-import com.myapp.authservice.repository.OtpCodeRepository;
-import com.myapp.authservice.repository.RefreshTokenRepository;
 import com.myapp.authservice.repository.UserRepository;
+import com.myapp.authservice.service.AuthMetrics.Operation;
+import com.myapp.authservice.service.AuthMetrics.Stage;
 import com.myapp.authservice.util.CuidGenerator;
 import com.myapp.authservice.util.JwtUtils;
 import com.myapp.authservice.util.OtpUtils;
@@ -21,9 +21,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -35,15 +35,18 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final OtpCodeRepository otpCodeRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final RefreshTokenStore refreshTokenStore;
+    private final OtpStore otpStore;
+    private final AuditSink auditSink;
     private final JwtUtils jwtUtils;
     private final OtpUtils otpUtils;
-    private final PasswordEncoder passwordEncoder;
+    private final PasskeyHasher passkeyHasher;
+    private final TransactionTemplate transactionTemplate;
     private final RateLimitingService rateLimitingService;
-    private final IdentityServiceClient identityServiceClient;
-    private final NotificationServiceClient notificationServiceClient;
+    private final OnboardingDispatcher onboardingDispatcher;
+    private final NotificationDispatcher notificationDispatcher;
+    private final AuthMetrics authMetrics;
+    private final UserCache userCache;
 
     @Value("${app.jwt.refresh-token-expiry-days}")
     private long refreshTokenExpiryDays;
@@ -56,23 +59,17 @@ public class AuthService {
         String formattedPhone = otpUtils.formatPhone(phone);
 
         // Check rate limit (per phone number)
-        rateLimitingService.checkOtpSendLimit(formattedPhone);
+        rateLimitingService.checkOtpSendLimit(formattedPhone, ipAddress);
 
         String otp = otpUtils.generateOtp();
         LocalDateTime expiresAt = otpUtils.getExpiryDate();
         int ttlMinutes = (int) otpUtils.getExpiryMinutes();
 
-        // Save OTP to database
-        OtpCode otpCode = OtpCode.builder()
-                .id(CuidGenerator.generate())
-                .phone(formattedPhone)
-                .code(otp)
-                .expiresAt(expiresAt)
-                .build();
-        otpCodeRepository.save(otpCode);
+        // Store OTP
+        otpStore.save(formattedPhone, otp, expiresAt);
 
-        // Send OTP via SMS (fire-and-forget, non-blocking)
-        notificationServiceClient.sendOtpSms(formattedPhone, otp, ttlMinutes);
+        // Send OTP via SMS (queued after commit, non-blocking)
+        notificationDispatcher.dispatchOtpSms(formattedPhone, otp, ttlMinutes);
 
         // Audit log (never log the OTP code itself)
         createAuditLog(null, AuditAction.OTP_SENT, formattedPhone, ipAddress, userAgent,
@@ -94,24 +91,17 @@ public class AuthService {
         String normalizedEmail = email.toLowerCase().trim();
 
         // Check rate limit (per email)
-        rateLimitingService.checkOtpSendLimit(normalizedEmail);
+        rateLimitingService.checkOtpSendLimit(normalizedEmail, ipAddress);
 
         String otp = otpUtils.generateOtp();
         LocalDateTime expiresAt = otpUtils.getExpiryDate();
         int ttlMinutes = (int) otpUtils.getExpiryMinutes();
 
-        // Save OTP to database (using phone field for email temporarily, or add email field)
-        // For now, we store email in the phone field since it's the identifier
-        OtpCode otpCode = OtpCode.builder()
-                .id(CuidGenerator.generate())
-                .phone(normalizedEmail) // Using phone field as identifier
-                .code(otp)
-                .expiresAt(expiresAt)
-                .build();
-        otpCodeRepository.save(otpCode);
+        // Store OTP (the email is the identifier)
+        otpStore.save(normalizedEmail, otp, expiresAt);
 
-        // Send OTP via Email (fire-and-forget, non-blocking)
-        notificationServiceClient.sendOtpEmail(normalizedEmail, otp, ttlMinutes);
+        // Send OTP via Email (queued after commit, non-blocking)
+        notificationDispatcher.dispatchOtpEmail(normalizedEmail, otp, ttlMinutes);
 
         // Audit log (never log the OTP code itself)
         createAuditLog(null, AuditAction.OTP_SENT, normalizedEmail, ipAddress, userAgent,
@@ -131,39 +121,43 @@ public class AuthService {
     @Transactional
     public AuthResponse verifyOtpAndLogin(String phone, String otp, String name,
                                            String ipAddress, String userAgent) {
+        AuthMetrics.Tracker tracker = authMetrics.track(Operation.VERIFY_OTP);
+        try {
+            AuthResponse authResponse = verifyOtpAndLogin(tracker, phone, otp, name, ipAddress, userAgent);
+            tracker.success();
+            return authResponse;
+        } catch (RuntimeException e) {
+            tracker.failure(e);
+            throw e;
+        }
+    }
+
+    private AuthResponse verifyOtpAndLogin(AuthMetrics.Tracker tracker, String phone, String otp, String name,
+                                           String ipAddress, String userAgent) {
         String formattedPhone = otpUtils.formatPhone(phone);
 
         // Check rate limit (per phone number) before verification
-        rateLimitingService.checkOtpVerifyLimit(formattedPhone);
-
-        // Find valid OTP
-        Optional<OtpCode> otpCodeOpt = otpCodeRepository.findValidOtp(
-                formattedPhone, otp, LocalDateTime.now());
+        tracker.time(Stage.RATE_LIMIT,
+                () -> rateLimitingService.checkOtpVerifyLimit(formattedPhone, ipAddress));
 
-        if (otpCodeOpt.isEmpty()) {
+        // Verify OTP and invalidate all outstanding OTPs for this phone
+        if (!tracker.time(Stage.OTP_LOOKUP, () -> otpStore.verifyAndConsume(formattedPhone, otp))) {
+            tracker.failed(AuditAction.OTP_FAILED);
             createAuditLog(null, AuditAction.OTP_FAILED, formattedPhone, ipAddress, userAgent,
                     Map.of("reason", "Invalid or expired OTP"), false);
             throw new UnauthorizedException("Invalid or expired OTP");
         }
 
-        OtpCode otpCode = otpCodeOpt.get();
-
-        // Mark OTP as used
-        otpCode.setUsed(true);
-        otpCodeRepository.save(otpCode);
-
-        // Mark all other OTPs for this phone as used
-        otpCodeRepository.markAllAsUsedForPhone(formattedPhone);
-
-        // Find or create user
-        Optional<User> existingUser = userRepository.findByPhone(formattedPhone);
-        User user;
+        // Find or create user (an existing, verified user is served from the user cache)
+        Optional<UserProfile> existingUser = tracker.time(Stage.USER_LOOKUP,
+                () -> userCache.findByPhone(formattedPhone));
+        UserProfile user;
         boolean isNewUser = existingUser.isEmpty();
 
         if (isNewUser) {
             // Use provided name or default to "Guest"
             String userName = (name != null && !name.isBlank()) ? name : "Guest";
-            user = User.builder()
+            User newUser = User.builder()
                     .id(CuidGenerator.generate())
                     .phone(formattedPhone)
                     .name(userName)
@@ -171,157 +165,226 @@ public class AuthService {
                     .status(UserStatus.ACTIVE)
                     .isVerified(true) // OTP verified = identity proven
                     .build();
-            userRepository.save(user);
+            tracker.time(Stage.USER_UPSERT, () -> userRepository.save(newUser));
+            user = UserProfile.of(newUser);
 
-            createAuditLog(user, AuditAction.USER_SIGNUP, formattedPhone, ipAddress, userAgent,
-                    Map.of("name", userName), true);
-            log.info("New user created: {}", user.getId());
+            tracker.time(Stage.AUDIT_WRITE, () -> createAuditLog(newUser.getId(), AuditAction.USER_SIGNUP,
+                    formattedPhone, ipAddress, userAgent, Map.of("name", userName), true));
+            log.info("New user created: {}", newUser.getId());
         } else {
             user = existingUser.get();
-            if (user.getStatus() != UserStatus.ACTIVE) {
+            if (user.status() != UserStatus.ACTIVE) {
                 throw new UnauthorizedException("Account is not active");
             }
 
             // Mark as verified if this is the first OTP login for a placeholder user
-            if (!user.isVerified()) {
-                user.setVerified(true);
-                if (name != null && !name.isBlank() && "Guest".equals(user.getName())) {
-                    user.setName(name);
+            if (!user.verified()) {
+                User placeholder = userRepository.findById(user.id())
+                        .orElseThrow(() -> new NotFoundException("User not found"));
+                placeholder.setVerified(true);
+                if (name != null && !name.isBlank() && "Guest".equals(placeholder.getName())) {
+                    placeholder.setName(name);
                 }
-                userRepository.save(user);
-                log.info("Placeholder user verified via OTP: {}", user.getId());
+                tracker.time(Stage.USER_UPSERT, () -> userRepository.save(placeholder));
+                userCache.evict(placeholder.getId());
+                user = UserProfile.of(placeholder);
+                log.info("Placeholder user verified via OTP: {}", placeholder.getId());
             }
         }
+        UserProfile loggedIn = user;
 
         // Generate tokens
-        AuthResponse authResponse = generateAuthResponse(user);
+        AuthResponse authResponse = tracker.time(Stage.TOKEN_MINT, () -> generateAuthResponse(
+                loggedIn.id(), loggedIn.phone(), loggedIn.name(), loggedIn.role()));
 
         // Save refresh token
-        saveRefreshToken(user, authResponse.getRefreshToken());
+        tracker.time(Stage.REFRESH_PERSIST, () -> saveRefreshToken(loggedIn.id(), authResponse.getRefreshToken()));
 
-        // Audit log for successful OTP verification
-        createAuditLog(user, AuditAction.OTP_VERIFIED, formattedPhone, ipAddress, userAgent,
-                Map.of("isNewUser", isNewUser), true);
+        tracker.time(Stage.AUDIT_WRITE, () -> {
+            // Audit log for successful OTP verification
+            createAuditLog(loggedIn.id(), AuditAction.OTP_VERIFIED, formattedPhone, ipAddress, userAgent,
+                    Map.of("isNewUser", isNewUser), true);
 
-        // Audit log for login
-        createAuditLog(user, AuditAction.USER_LOGIN_OTP, formattedPhone, ipAddress, userAgent,
-                null, true);
+            // Audit log for login
+            createAuditLog(loggedIn.id(), AuditAction.USER_LOGIN_OTP, formattedPhone, ipAddress, userAgent,
+                    null, true);
+        });
 
-        // Reset rate limit on successful verification
-        rateLimitingService.resetOtpVerifyLimit(formattedPhone);
+        tracker.time(Stage.OUTBOUND, () -> {
+            // Reset login attempt limits on successful verification (after commit)
+            rateLimitingService.resetLoginLimits(formattedPhone);
 
-        // Notify identity-service so it can link placeholder users and resolve invitations
-        identityServiceClient.onboardUser(user.getId(), user.getName(), formattedPhone, user.getEmail());
+            // Notify identity-service so it can link placeholder users and resolve invitations
+            // (after commit, skipped for users already onboarded)
+            onboardingDispatcher.onboardUser(loggedIn.id(), loggedIn.name(), formattedPhone, loggedIn.email());
+        });
 
         return authResponse;
     }
 
     /**
      * Login with passkey (PIN)
+     *
+     * Not one transaction: the user is read and the passkey matched (BCrypt, on the
+     * PasskeyHasher pool) without holding a DB connection; only the writes run in a
+     * transaction.
      */
-    @Transactional
     public AuthResponse loginWithPasskey(String phone, String passkey,
                                           String ipAddress, String userAgent) {
+        AuthMetrics.Tracker tracker = authMetrics.track(Operation.PASSKEY_LOGIN);
+        try {
+            return loginWithPasskey(tracker, phone, passkey, ipAddress, userAgent);
+        } catch (RuntimeException e) {
+            tracker.failure(e);
+            throw e;
+        }
+    }
+
+    private AuthResponse loginWithPasskey(AuthMetrics.Tracker tracker, String phone, String passkey,
+                                          String ipAddress, String userAgent) {
         String formattedPhone = otpUtils.formatPhone(phone);
 
         // Check rate limit (per phone number) before passkey verification
-        rateLimitingService.checkPasskeyLoginLimit(formattedPhone);
+        tracker.time(Stage.RATE_LIMIT,
+                () -> rateLimitingService.checkPasskeyLoginLimit(formattedPhone, ipAddress));
 
-        User user = userRepository.findByPhone(formattedPhone)
+        User user = tracker.time(Stage.USER_LOOKUP, () -> userRepository.findByPhone(formattedPhone))
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         if (user.getStatus() != UserStatus.ACTIVE) {
             throw new UnauthorizedException("Account is not active");
         }
 
-        if (user.getPasskeyHash() == null) {
+        String passkeyHash = user.getPasskeyHash();
+        if (passkeyHash == null) {
             throw new BadRequestException("Passkey not set. Please use OTP login first.");
         }
 
-        if (!passwordEncoder.matches(passkey, user.getPasskeyHash())) {
-            createAuditLog(user, AuditAction.PASSKEY_LOGIN_FAILED, formattedPhone,
+        if (!tracker.time(Stage.PASSKEY_MATCH, () -> passkeyHasher.matches(passkey, passkeyHash))) {
+            tracker.failed(AuditAction.PASSKEY_LOGIN_FAILED);
+            createAuditLog(user.getId(), AuditAction.PASSKEY_LOGIN_FAILED, formattedPhone,
                     ipAddress, userAgent, null, false);
             throw new UnauthorizedException("Invalid passkey");
         }
 
-        // Generate tokens
-        AuthResponse authResponse = generateAuthResponse(user);
+        // Hash was created at a lower strength than configured: rehash now that we know the
+        // passkey (best effort, the login does not depend on it)
+        String upgradedHash = passkeyHasher.upgradeEncoding(passkeyHash)
+                ? tracker.time(Stage.PASSKEY_MATCH, () -> rehash(passkey))
+                : null;
+
+        return transactionTemplate.execute(status -> {
+            if (upgradedHash != null
+                    && userRepository.updatePasskeyHash(user.getId(), passkeyHash, upgradedHash) > 0) {
+                userCache.evict(user.getId());
+                log.info("Passkey hash upgraded for user: {}", user.getId());
+            }
 
-        // Save refresh token
-        saveRefreshToken(user, authResponse.getRefreshToken());
+            // Generate tokens
+            AuthResponse authResponse = tracker.time(Stage.TOKEN_MINT, () -> generateAuthResponse(
+                    user.getId(), user.getPhone(), user.getName(), user.getRole()));
 
-        // Audit log
-        createAuditLog(user, AuditAction.USER_LOGIN_PASSKEY, formattedPhone,
-                ipAddress, userAgent, null, true);
+            // Save refresh token
+            tracker.time(Stage.REFRESH_PERSIST, () -> saveRefreshToken(user.getId(), authResponse.getRefreshToken()));
 
-        // Reset rate limit on successful login
-        rateLimitingService.resetPasskeyLoginLimit(formattedPhone);
+            // Audit log
+            tracker.time(Stage.AUDIT_WRITE, () -> createAuditLog(user.getId(), AuditAction.USER_LOGIN_PASSKEY,
+                    formattedPhone, ipAddress, userAgent, null, true));
 
-        // Notify identity-service so it can link placeholder users and resolve invitations
-        identityServiceClient.onboardUser(user.getId(), user.getName(), formattedPhone, user.getEmail());
+            tracker.time(Stage.OUTBOUND, () -> {
+                // Reset login attempt limits on successful login (after commit)
+                rateLimitingService.resetLoginLimits(formattedPhone);
 
-        return authResponse;
+                // Notify identity-service so it can link placeholder users and resolve invitations
+                // (after commit, skipped for users already onboarded)
+                onboardingDispatcher.onboardUser(user.getId(), user.getName(), formattedPhone, user.getEmail());
+            });
+
+            tracker.success();
+            return authResponse;
+        });
     }
 
     /**
      * Set or update passkey for authenticated user
+     *
+     * The passkey is hashed before the transaction starts, so no DB connection is held
+     * during BCrypt.
      */
-    @Transactional
     public void setPasskey(String userId, String passkey, String ipAddress, String userAgent) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
+        String hashedPasskey = passkeyHasher.encode(passkey);
 
-        String hashedPasskey = passwordEncoder.encode(passkey);
-        user.setPasskeyHash(hashedPasskey);
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
 
-        // Audit log
-        createAuditLog(user, AuditAction.PASSKEY_SET, user.getPhone(),
-                ipAddress, userAgent, null, true);
+            user.setPasskeyHash(hashedPasskey);
+            userRepository.save(user);
+            userCache.evict(userId);
+
+            // Audit log
+            createAuditLog(userId, AuditAction.PASSKEY_SET, user.getPhone(),
+                    ipAddress, userAgent, null, true);
+        });
 
         log.info("Passkey set for user: {}", userId);
     }
 
     /**
      * Refresh access token using refresh token
+     *
+     * Not transactional: the rotation is the last step that can fail and commits on its
+     * own (one Redis script, or the Postgres store's own transaction), so a refresh never
+     * holds a connection across it, and nothing after it can roll back a rotated token.
      */
-    @Transactional
     public TokenResponse refreshToken(String refreshToken, String ipAddress, String userAgent) {
+        AuthMetrics.Tracker tracker = authMetrics.track(Operation.REFRESH);
+        try {
+            TokenResponse tokenResponse = refreshToken(tracker, refreshToken, ipAddress, userAgent);
+            tracker.success();
+            return tokenResponse;
+        } catch (RuntimeException e) {
+            tracker.failure(e);
+            throw e;
+        }
+    }
+
+    private TokenResponse refreshToken(AuthMetrics.Tracker tracker, String refreshToken,
+                                       String ipAddress, String userAgent) {
         // Verify refresh token JWT
         Claims claims;
         try {
-            claims = jwtUtils.verifyRefreshToken(refreshToken);
+            claims = tracker.time(Stage.TOKEN_VERIFY, () -> jwtUtils.verifyRefreshToken(refreshToken));
         } catch (JwtException e) {
             throw new UnauthorizedException("Invalid or expired refresh token");
         }
 
         String userId = claims.get("userId", String.class);
 
-        // Find refresh token in database
-        RefreshToken storedToken = refreshTokenRepository.findByTokenWithUser(refreshToken)
+        // Not from the user cache: user status is changed outside this service (no eviction),
+        // and a suspended or deleted user must not mint tokens until a cached profile expires
+        UserProfile user = tracker.time(Stage.USER_LOOKUP, () -> userRepository.findProfileById(userId))
                 .orElseThrow(() -> new UnauthorizedException("Refresh token not found or revoked"));
 
-        User user = storedToken.getUser();
-
-        if (user.getStatus() != UserStatus.ACTIVE) {
+        if (user.status() != UserStatus.ACTIVE) {
             throw new UnauthorizedException("Account is not active");
         }
 
-        // Delete ALL refresh tokens for this user to prevent race-condition duplicates
-        // when multiple API clients attempt concurrent refreshes
-        refreshTokenRepository.deleteAllByUserId(user.getId());
-        refreshTokenRepository.flush();
-
         // Generate new tokens
-        String newAccessToken = jwtUtils.generateAccessToken(user.getId(), user.getPhone(), user.getRole());
-        String newRefreshToken = jwtUtils.generateRefreshToken(user.getId());
-
-        // Save new refresh token
-        saveRefreshToken(user, newRefreshToken);
+        String newAccessToken = tracker.time(Stage.TOKEN_MINT,
+                () -> jwtUtils.generateAccessToken(user.id(), user.phone(), user.role()));
+        String newRefreshToken = tracker.time(Stage.TOKEN_MINT, () -> jwtUtils.generateRefreshToken(user.id()));
+
+        // Consume the presented token and replace ALL of the user's tokens with the new one
+        // (prevents race-condition duplicates when multiple API clients refresh concurrently)
+        if (!tracker.time(Stage.REFRESH_PERSIST, () -> refreshTokenStore.rotate(user.id(), refreshToken,
+                newRefreshToken, refreshTokenExpiresAt()))) {
+            throw new UnauthorizedException("Refresh token not found or revoked");
+        }
 
-        // Audit log
-        createAuditLog(user, AuditAction.TOKEN_REFRESHED, user.getPhone(),
-                ipAddress, userAgent, null, true);
+        // Audit log (enqueued, no database work here)
+        tracker.time(Stage.AUDIT_WRITE, () -> createAuditLog(user.id(), AuditAction.TOKEN_REFRESHED, user.phone(),
+                ipAddress, userAgent, null, true));
 
         return TokenResponse.builder()
                 .accessToken(newAccessToken)
@@ -334,19 +397,19 @@ public class AuthService {
      */
     @Transactional
     public void logout(String userId, String refreshToken, String ipAddress, String userAgent) {
-        User user = userRepository.findById(userId)
+        UserProfile user = userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         if (refreshToken != null && !refreshToken.isBlank()) {
             // Logout specific device
-            refreshTokenRepository.deleteByUserIdAndToken(userId, refreshToken);
+            refreshTokenStore.revoke(userId, refreshToken);
         } else {
             // Logout all devices
-            refreshTokenRepository.deleteAllByUserId(userId);
+            refreshTokenStore.revokeAll(userId);
         }
 
         // Audit log
-        createAuditLog(user, AuditAction.USER_LOGOUT, user.getPhone(),
+        createAuditLog(userId, AuditAction.USER_LOGOUT, user.phone(),
                 ipAddress, userAgent,
                 Map.of("allDevices", refreshToken == null || refreshToken.isBlank()), true);
 
@@ -354,22 +417,21 @@ public class AuthService {
     }
 
     /**
-     * Get current user details
+     * Get current user details (from the user cache, no transaction)
      */
-    @Transactional(readOnly = true)
     public UserResponse getCurrentUser(String userId) {
-        User user = userRepository.findById(userId)
+        UserProfile user = userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         return UserResponse.builder()
-                .id(user.getId())
-                .phone(user.getPhone())
-                .name(user.getName())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .status(user.getStatus())
-                .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
+                .id(user.id())
+                .phone(user.phone())
+                .name(user.name())
+                .email(user.email())
+                .role(user.role())
+                .status(user.status())
+                .createdAt(user.createdAt())
+                .updatedAt(user.updatedAt())
                 .build();
     }
 
@@ -391,9 +453,10 @@ public class AuthService {
         }
 
         userRepository.save(user);
+        userCache.evict(userId);
 
         // Audit log
-        createAuditLog(user, AuditAction.PROFILE_UPDATED, user.getPhone(),
+        createAuditLog(userId, AuditAction.PROFILE_UPDATED, user.getPhone(),
                 ipAddress, userAgent,
                 Map.of("updatedFields", (name != null ? "name," : "") + (email != null ? "email" : "")),
                 true);
@@ -420,54 +483,55 @@ public class AuthService {
     public void cleanupExpiredTokens() {
         LocalDateTime now = LocalDateTime.now();
 
-        int deletedTokens = refreshTokenRepository.deleteExpiredTokens(now);
-        int deletedOtps = otpCodeRepository.deleteExpiredAndUsedOtps(now);
+        int deletedTokens = refreshTokenStore.purgeExpired(now);
+        int deletedOtps = otpStore.purgeExpired(now);
 
         log.info("Cleanup completed: {} tokens, {} OTPs deleted", deletedTokens, deletedOtps);
     }
 
     // Helper methods
 
-    private AuthResponse generateAuthResponse(User user) {
-        String accessToken = jwtUtils.generateAccessToken(user.getId(), user.getPhone(), user.getRole());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getId());
+    /**
+     * Hash the passkey for a strength upgrade, or null if the hashing pool is saturated
+     * (the upgrade is retried on a later login).
+     */
+    private String rehash(String passkey) {
+        try {
+            return passkeyHasher.encode(passkey);
+        } catch (RateLimitExceededException e) {
+            return null;
+        }
+    }
+
+    private AuthResponse generateAuthResponse(String userId, String phone, String name, Role role) {
+        String accessToken = jwtUtils.generateAccessToken(userId, phone, role);
+        String refreshToken = jwtUtils.generateRefreshToken(userId);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
                 .user(AuthResponse.UserInfo.builder()
-                        .id(user.getId())
-                        .phone(user.getPhone())
-                        .name(user.getName())
-                        .role(user.getRole())
+                        .id(userId)
+                        .phone(phone)
+                        .name(name)
+                        .role(role)
                         .build())
                 .build();
     }
 
-    private void saveRefreshToken(User user, String token) {
-        RefreshToken refreshToken = RefreshToken.builder()
-                .id(CuidGenerator.generate())
-                .token(token)
-                .user(user)
-                .expiresAt(LocalDateTime.now().plusDays(refreshTokenExpiryDays))
-                .build();
-        refreshTokenRepository.save(refreshToken);
+    private void saveRefreshToken(String userId, String token) {
+        refreshTokenStore.save(userId, token, refreshTokenExpiresAt());
     }
 
-    private void createAuditLog(User user, AuditAction action, String phone,
+    private LocalDateTime refreshTokenExpiresAt() {
+        return LocalDateTime.now().plusDays(refreshTokenExpiryDays);
+    }
+
+    private void createAuditLog(String userId, AuditAction action, String phone,
                                  String ipAddress, String userAgent,
                                  Map<String, Object> metadata, boolean success) {
-        AuditLog auditLog = AuditLog.builder()
-                .id(CuidGenerator.generate())
-                .user(user)
-                .action(action)
-                .phone(phone)
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
-                .metadata(metadata)
-                .success(success)
-                .build();
-        auditLogRepository.save(auditLog);
+        auditSink.record(userId, action, phone,
+                ipAddress, userAgent, metadata, success);
     }
 
     /**
@@ -0,0 +1,152 @@
+package com.myapp.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Multi-dimensional rate limiter evaluated in one Redis round trip.
+ *
+ * For each request the buckets of all dimensions are checked by a single Lua script
+ * (scripts/rate-limit-composite.lua) and a token is taken from all of them or from none:
+ * - identifier (phone/email), limit supplied by the caller
+ * - client IP subnet (/24 for IPv4, /64 for IPv6)
+ * - global bucket for the endpoint
+ *
+ * There is deliberately no user agent dimension: a UA is shared by every client of one
+ * app or browser build, so a per-UA bucket would throttle all of them together.
+ *
+ * Keys: rate:composite:{endpoint}:{dimension}:{value}. The endpoint is a hash tag, so all
+ * buckets of one request live in the same Redis Cluster slot.
+ *
+ * Disabled by default (app.rate-limit.composite.enabled); per-IP limiting then stays in nginx.
+ */
+@Slf4j
+@Component
+public class CompositeRateLimiter {
+
+    static final String KEY_PREFIX = "rate:composite:";
+
+    private static final RedisScript<Long> SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/rate-limit-composite.lua"), Long.class);
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    /**
+     * Token bucket with greedy refill: capacity tokens, refilled evenly over the period.
+     */
+    public record Limit(long capacity, Duration period) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit globalLimit;
+
+    public CompositeRateLimiter(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.rate-limit.composite.enabled:false}") boolean enabled,
+            @Value("${app.rate-limit.composite.ip.capacity:30}") long ipCapacity,
+            @Value("${app.rate-limit.composite.ip.period:10m}") Duration ipPeriod,
+            @Value("${app.rate-limit.composite.global.capacity:2000}") long globalCapacity,
+            @Value("${app.rate-limit.composite.global.period:1m}") Duration globalPeriod) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.ipLimit = new Limit(ipCapacity, ipPeriod);
+        this.globalLimit = new Limit(globalCapacity, globalPeriod);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take one token from every applicable bucket.
+     *
+     * @param endpoint        Endpoint name (e.g. otp-send)
+     * @param identifier      Phone number or email
+     * @param identifierLimit Limit for the identifier bucket
+     * @param ipAddress       Client IP (dimension skipped when null)
+     * @return 0 if allowed, otherwise milliseconds until the tightest bucket has a token
+     */
+    public long tryConsume(String endpoint, String identifier, Limit identifierLimit,
+                           String ipAddress) {
+        List<String> keys = new ArrayList<>(3);
+        List<String> args = new ArrayList<>(9);
+        add(keys, args, identifierKey(endpoint, identifier), identifierLimit);
+
+        String subnet = subnetOf(ipAddress);
+        if (subnet != null) {
+            add(keys, args, key(endpoint, "ip", subnet), ipLimit);
+        }
+        add(keys, args, key(endpoint, "global", "all"), globalLimit);
+
+        Long waitMillis = redisTemplate.execute(SCRIPT, keys, args.toArray());
+        return waitMillis != null ? waitMillis : 0;
+    }
+
+    /**
+     * Delete the identifier buckets of the given endpoints (other dimensions are shared and kept).
+     */
+    public void reset(String identifier, String... endpoints) {
+        List<String> keys = new ArrayList<>(endpoints.length);
+        for (String endpoint : endpoints) {
+            keys.add(identifierKey(endpoint, identifier));
+        }
+        redisTemplate.delete(keys);
+    }
+
+    private static String identifierKey(String endpoint, String identifier) {
+        return key(endpoint, "id", identifier);
+    }
+
+    private static String key(String endpoint, String dimension, String value) {
+        return KEY_PREFIX + "{" + endpoint + "}:" + dimension + ":" + value;
+    }
+
+    private static void add(List<String> keys, List<String> args, String key, Limit limit) {
+        keys.add(key);
+        args.add(String.valueOf(limit.capacity()));
+        args.add(String.valueOf(limit.capacity()));
+        args.add(String.valueOf(limit.period().toMillis()));
+    }
+
+    /**
+     * IPv4 /24 or IPv6 /64 network of a literal address, null if not an IP literal.
+     */
+    static String subnetOf(String ipAddress) {
+        if (ipAddress == null) {
+            return null;
+        }
+        if (IPV4.matcher(ipAddress).matches()) {
+            return ipAddress.substring(0, ipAddress.lastIndexOf('.')) + ".0/24";
+        }
+        if (IPV6.matcher(ipAddress).matches()) {
+            try {
+                // Literal only (contains ':'), never triggers a DNS lookup
+                byte[] address = InetAddress.getByName(ipAddress).getAddress();
+                if (address.length == 4) {
+                    return subnetOf(InetAddress.getByAddress(address).getHostAddress());
+                }
+                StringBuilder network = new StringBuilder();
+                for (int i = 0; i < 8; i += 2) {
+                    network.append(Integer.toHexString((address[i] & 0xff) << 8 | (address[i + 1] & 0xff))).append(':');
+                }
+                return network.append(":/64").toString();
+            } catch (UnknownHostException e) {
+                log.debug("Ignoring invalid IP address for rate limiting: {}", ipAddress);
+            }
+        }
+        return null;
+    }
+}
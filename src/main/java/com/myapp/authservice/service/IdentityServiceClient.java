@@ -1,58 +1,72 @@
 package com.myapp.authservice.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Client for calling identity-service internal endpoints.
  * Used to onboard users after OTP verification so that identity-service
  * can link placeholder users to the auth userId and resolve pending invitations.
+ *
+ * Calls are synchronous and throw on failure; {@link OnboardingDispatcher} runs them
+ * off the request thread.
  */
 @Component
 public class IdentityServiceClient {
 
-    private static final Logger logger = LoggerFactory.getLogger(IdentityServiceClient.class);
-
     private final RestClient restClient;
 
-    public IdentityServiceClient(@Value("${app.identity-service.base-url}") String baseUrl) {
+    public IdentityServiceClient(
+            @Value("${app.identity-service.base-url}") String baseUrl,
+            @Value("${app.identity-service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${app.identity-service.read-timeout:5s}") Duration readTimeout,
+            ObservationRegistry observationRegistry) {
+        // java.net.http keeps a pool of persistent connections and does not pin virtual threads
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
         this.restClient = RestClient.builder()
                 .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                // http.client.requests timers (uri, status, outcome) and client spans
+                .observationRegistry(observationRegistry)
                 .build();
     }
 
     /**
      * Notify identity-service that a user has completed OTP verification.
      * This links any existing placeholder user to the auth userId and resolves
-     * pending invitations. Fire-and-forget — failures are logged but don't block login.
+     * pending invitations. Idempotent on the identity-service side.
+     *
+     * @throws RestClientException on timeout, connection failure or non-2xx response
      */
     public void onboardUser(String authUserId, String name, String phone, String email) {
-        try {
-            Map<String, Object> body = new java.util.HashMap<>();
-            body.put("authUserId", authUserId);
-            body.put("name", name);
-            if (phone != null) body.put("phone", phone);
-            if (email != null) body.put("email", email);
-            body.put("isVerified", true);
-
-            restClient.post()
-                    .uri("/internal/users/onboard")
-                    .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
-                    .body(body)
-                    .retrieve()
-                    .toBodilessEntity();
-
-            logger.info("Successfully onboarded user in identity-service: authUserId={}", authUserId);
-        } catch (Exception e) {
-            // Log but don't fail the login — identity-service linkage is best-effort
-            // The user can still log in; linkage will happen on next login attempt
-            logger.warn("Failed to onboard user in identity-service: authUserId={}, error={}",
-                    authUserId, e.getMessage());
-        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("authUserId", authUserId);
+        body.put("name", name);
+        if (phone != null) body.put("phone", phone);
+        if (email != null) body.put("email", email);
+        body.put("isVerified", true);
+
+        restClient.post()
+                .uri("/internal/users/onboard")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
     }
 }
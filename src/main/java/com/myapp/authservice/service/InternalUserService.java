@@ -1,8 +1,9 @@
 package com.myapp.authservice.service;
 
-import com.myapp.authservice.domain.Role;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myapp.authservice.domain.User;
-import com.myapp.authservice.domain.UserStatus;
+import com.myapp.authservice.domain.UserProfile;
 import com.myapp.authservice.dto.request.ResolveOrCreateUserRequest;
 import com.myapp.authservice.dto.response.ResolveOrCreateUserResponse;
 import com.myapp.authservice.repository.UserRepository;
@@ -10,10 +11,18 @@ import com.myapp.authservice.util.CuidGenerator;
 import com.myapp.authservice.util.OtpUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Service for internal user operations called by identity-service.
  * Ensures auth-service is the single source of truth for user IDs.
@@ -24,7 +33,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class InternalUserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final OtpUtils otpUtils;
+    private final ObjectMapper objectMapper;
 
     /**
      * Resolve an existing user or create a placeholder user.
@@ -38,94 +49,206 @@ public class InternalUserService {
         String normalizedKey = normalizeIdentityKey(request.getIdentityKey(), request.getIdentityType());
 
         // Try to find existing user
-        User existingUser = findUserByIdentity(normalizedKey, request.getIdentityType());
+        UserProfile existingUser = findUserByIdentity(normalizedKey, request.getIdentityType());
 
         if (existingUser != null) {
             log.info("Found existing user: id={}, phone={}, isVerified={}",
-                    existingUser.getId(), maskPhone(existingUser.getPhone()), existingUser.isVerified());
+                    existingUser.id(), maskPhone(existingUser.phone()), existingUser.verified());
+            return toResponse(existingUser, false);
+        }
+
+        return createPlaceholderUser(normalizedKey, request);
+    }
 
-            return ResolveOrCreateUserResponse.builder()
-                    .userId(existingUser.getId())
-                    .isVerified(existingUser.isVerified())
-                    .isNew(false)
-                    .phone(existingUser.getPhone())
-                    .email(existingUser.getEmail())
-                    .name(existingUser.getName())
-                    .build();
+    /**
+     * Resolve or create many users at once (e.g. all contacts of an imported trip).
+     *
+     * Existing users are found with one query per identity type, plus one last-10-digits
+     * query for phones without an exact match; the remaining contacts are inserted with a
+     * single statement.
+     * An invalid key rejects the whole batch before anything is written. Repeated keys
+     * get the same result.
+     *
+     * @return One response per request, in request order
+     */
+    @Transactional
+    public List<ResolveOrCreateUserResponse> resolveOrCreateUsers(List<ResolveOrCreateUserRequest> requests) {
+        List<String> keys = new ArrayList<>(requests.size());
+        Set<String> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ResolveOrCreateUserRequest request = requests.get(i);
+            String key;
+            try {
+                key = normalizeIdentityKey(request.getIdentityKey(), request.getIdentityType());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("users[" + i + "]: " + e.getMessage());
+            }
+            keys.add(key);
+            (request.getIdentityType() == ResolveOrCreateUserRequest.IdentityType.EMAIL ? emails : phones).add(key);
         }
 
-        // Create placeholder user - handle race condition
-        try {
-            User placeholder = createPlaceholderUser(normalizedKey, request);
-            log.info("Created placeholder user: id={}, phone={}", placeholder.getId(), maskPhone(placeholder.getPhone()));
+        Map<String, UserProfile> existing = new HashMap<>();
+        if (!phones.isEmpty()) {
+            userRepository.findProfilesByPhoneIn(phones).forEach(user -> existing.put(user.phone(), user));
+        }
+        if (!emails.isEmpty()) {
+            userRepository.findProfilesByEmailIn(emails).forEach(user -> existing.putIfAbsent(user.email().toLowerCase(), user));
+        }
 
-            return ResolveOrCreateUserResponse.builder()
-                    .userId(placeholder.getId())
-                    .isVerified(false)
-                    .isNew(true)
-                    .phone(placeholder.getPhone())
-                    .email(placeholder.getEmail())
-                    .name(placeholder.getName())
-                    .build();
-        } catch (DataIntegrityViolationException e) {
-            // Race condition - another request created the user, retry lookup
-            log.info("Concurrent creation detected, retrying lookup for: {}", maskPhone(normalizedKey));
-            User raceWinner = findUserByIdentity(normalizedKey, request.getIdentityType());
-            if (raceWinner == null) {
-                throw new IllegalStateException("User not found after constraint violation");
+        // Phones without an exact match: try matching last 10 digits (handles country code variations)
+        Map<String, List<String>> phonesBySuffix = new HashMap<>();
+        for (String phone : phones) {
+            String last10 = User.nationalNumber(phone);
+            if (!existing.containsKey(phone) && last10 != null) {
+                phonesBySuffix.computeIfAbsent(last10, k -> new ArrayList<>()).add(phone);
+            }
+        }
+        if (!phonesBySuffix.isEmpty()) {
+            Map<String, UserProfile> bySuffix = new HashMap<>();
+            for (UserProfile user : userRepository.findProfilesByPhoneNational10In(phonesBySuffix.keySet())) {
+                bySuffix.merge(User.nationalNumber(user.phone()), user, InternalUserService::preferred);
             }
+            bySuffix.forEach((last10, user) -> phonesBySuffix.get(last10).forEach(phone -> existing.put(phone, user)));
+        }
 
-            return ResolveOrCreateUserResponse.builder()
-                    .userId(raceWinner.getId())
-                    .isVerified(raceWinner.isVerified())
-                    .isNew(false)
-                    .phone(raceWinner.getPhone())
-                    .email(raceWinner.getEmail())
-                    .name(raceWinner.getName())
-                    .build();
+        Map<String, ResolveOrCreateUserResponse> resolved = new HashMap<>();
+        Map<String, Placeholder> missing = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String key = keys.get(i);
+            UserProfile user = existing.get(key);
+            if (user != null) {
+                resolved.putIfAbsent(key, toResponse(user, false));
+            } else if (!missing.containsKey(key)) {
+                missing.put(key, newPlaceholder(key, requests.get(i)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            resolved.putAll(createPlaceholderUsers(new ArrayList<>(missing.values())));
         }
+
+        List<ResolveOrCreateUserResponse> responses = keys.stream().map(resolved::get).toList();
+        long created = resolved.values().stream().filter(ResolveOrCreateUserResponse::isNew).count();
+        log.info("Resolved {} contacts: {} distinct, {} created", requests.size(), resolved.size(), created);
+        return responses;
     }
 
-    private User findUserByIdentity(String normalizedKey, ResolveOrCreateUserRequest.IdentityType type) {
+    private UserProfile findUserByIdentity(String normalizedKey, ResolveOrCreateUserRequest.IdentityType type) {
         if (type == ResolveOrCreateUserRequest.IdentityType.EMAIL) {
-            return userRepository.findByEmailIgnoreCase(normalizedKey).orElse(null);
+            return userCache.findByEmail(normalizedKey).orElse(null);
         }
 
         // For phone, try exact match first
-        User user = userRepository.findByPhone(normalizedKey).orElse(null);
+        UserProfile user = userCache.findByPhone(normalizedKey).orElse(null);
         if (user != null) {
             return user;
         }
 
         // Try matching last 10 digits (handles country code variations)
-        String last10 = extractLast10Digits(normalizedKey);
+        String last10 = User.nationalNumber(normalizedKey);
         if (last10 != null) {
-            return userRepository.findByPhoneSuffix(last10).orElse(null);
+            return userRepository.findFirstByPhoneNational10OrderByIsVerifiedDescCreatedAtAsc(last10)
+                    .map(UserProfile::of)
+                    .orElse(null);
         }
 
         return null;
     }
 
-    private User createPlaceholderUser(String normalizedKey, ResolveOrCreateUserRequest request) {
+    /**
+     * Of several users sharing the last 10 digits: verified before placeholder, then oldest
+     * (same order as findFirstByPhoneNational10OrderByIsVerifiedDescCreatedAtAsc).
+     */
+    private static UserProfile preferred(UserProfile a, UserProfile b) {
+        if (a.verified() != b.verified()) {
+            return a.verified() ? a : b;
+        }
+        return b.createdAt() != null && (a.createdAt() == null || b.createdAt().isBefore(a.createdAt())) ? b : a;
+    }
+
+    private ResolveOrCreateUserResponse createPlaceholderUser(String normalizedKey, ResolveOrCreateUserRequest request) {
+        Placeholder placeholder = newPlaceholder(normalizedKey, request);
+        ResolveOrCreateUserResponse response = createPlaceholderUsers(new ArrayList<>(List.of(placeholder)))
+                .get(normalizedKey);
+        if (response.isNew()) {
+            log.info("Created placeholder user: id={}, phone={}", response.getUserId(), maskPhone(response.getPhone()));
+        }
+        return response;
+    }
+
+    private Placeholder newPlaceholder(String normalizedKey, ResolveOrCreateUserRequest request) {
         String userId = CuidGenerator.generate();
         String name = request.getName() != null ? request.getName() : "Guest";
 
-        User.UserBuilder builder = User.builder()
-                .id(userId)
-                .name(name)
-                .role(Role.USER)
-                .status(UserStatus.ACTIVE)
-                .isVerified(false); // Placeholder - not verified until OTP login
-
         if (request.getIdentityType() == ResolveOrCreateUserRequest.IdentityType.EMAIL) {
-            builder.email(normalizedKey);
             // Phone is required, use a placeholder
-            builder.phone(generatePlaceholderPhone(userId));
-        } else {
-            builder.phone(normalizedKey);
+            return new Placeholder(normalizedKey, userId, generatePlaceholderPhone(userId), name, normalizedKey);
+        }
+        return new Placeholder(normalizedKey, userId, normalizedKey, name, null);
+    }
+
+    /**
+     * Insert placeholder users (not verified until OTP login) in one statement.
+     *
+     * Rows are inserted in phone order, so concurrent imports with overlapping contacts
+     * wait on each other's uncommitted rows in the same order and cannot deadlock.
+     * Rows that lost a race to a concurrent insert are read back with one select.
+     *
+     * @return Responses by identity key
+     */
+    private Map<String, ResolveOrCreateUserResponse> createPlaceholderUsers(List<Placeholder> placeholders) {
+        placeholders.sort(Comparator.comparing(Placeholder::phone));
+        String rows;
+        try {
+            rows = objectMapper.writeValueAsString(placeholders);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize placeholder users", e);
         }
+        Set<String> inserted = new HashSet<>(userRepository.insertPlaceholdersIfAbsent(rows, LocalDateTime.now()));
 
-        return userRepository.save(builder.build());
+        Map<String, ResolveOrCreateUserResponse> responses = new HashMap<>();
+        List<Placeholder> lost = new ArrayList<>();
+        for (Placeholder placeholder : placeholders) {
+            if (!inserted.contains(placeholder.id())) {
+                lost.add(placeholder);
+                continue;
+            }
+            responses.put(placeholder.key(), ResolveOrCreateUserResponse.builder()
+                    .userId(placeholder.id())
+                    .isVerified(false)
+                    .isNew(true)
+                    .phone(placeholder.phone())
+                    .email(placeholder.email())
+                    .name(placeholder.name())
+                    .build());
+        }
+
+        if (!lost.isEmpty()) {
+            // Race condition - another request created these users since the lookup
+            log.info("Concurrent creation detected for {} users, retrying lookup", lost.size());
+            Map<String, UserProfile> winners = new HashMap<>();
+            userRepository.findProfilesByPhoneIn(lost.stream().map(Placeholder::phone).toList())
+                    .forEach(user -> winners.put(user.phone(), user));
+            for (Placeholder placeholder : lost) {
+                UserProfile raceWinner = winners.get(placeholder.phone());
+                if (raceWinner == null) {
+                    throw new IllegalStateException("User not found after insert conflict");
+                }
+                responses.put(placeholder.key(), toResponse(raceWinner, false));
+            }
+        }
+        return responses;
+    }
+
+    private ResolveOrCreateUserResponse toResponse(UserProfile user, boolean isNew) {
+        return ResolveOrCreateUserResponse.builder()
+                .userId(user.id())
+                .isVerified(user.verified())
+                .isNew(isNew)
+                .phone(user.phone())
+                .email(user.email())
+                .name(user.name())
+                .build();
     }
 
     private String normalizeIdentityKey(String key, ResolveOrCreateUserRequest.IdentityType type) {
@@ -151,14 +274,6 @@ public class InternalUserService {
         return cleaned;
     }
 
-    private String extractLast10Digits(String phone) {
-        String digits = phone.replaceAll("[^\\d]", "");
-        if (digits.length() >= 10) {
-            return digits.substring(digits.length() - 10);
-        }
-        return null;
-    }
-
     private String generatePlaceholderPhone(String userId) {
         // Generate a unique placeholder phone for email-only users
         // This satisfies the NOT NULL constraint while being clearly identifiable
@@ -169,4 +284,10 @@ public class InternalUserService {
         if (phone == null || phone.length() < 6) return "****";
         return phone.substring(0, 4) + "****" + phone.substring(phone.length() - 2);
     }
+
+    /**
+     * Row of the placeholder insert; serialized as JSON (key is ignored by the insert).
+     */
+    private record Placeholder(String key, String id, String phone, String name, String email) {
+    }
 }
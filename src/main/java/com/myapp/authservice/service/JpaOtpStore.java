@@ -0,0 +1,56 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.domain.OtpCode;
+import com.myapp.authservice.repository.OtpCodeRepository;
+import com.myapp.authservice.util.CuidGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * OTP store backed by the otp_codes table.
+ * Joins the caller's transaction when there is one.
+ */
+@RequiredArgsConstructor
+public class JpaOtpStore implements OtpStore {
+
+    private final OtpCodeRepository otpCodeRepository;
+
+    @Override
+    @Transactional
+    public void save(String identifier, String code, LocalDateTime expiresAt) {
+        OtpCode otpCode = OtpCode.builder()
+                .id(CuidGenerator.generate())
+                .phone(identifier) // phone column holds the identifier (phone or email)
+                .code(code)
+                .expiresAt(expiresAt)
+                .build();
+        otpCodeRepository.save(otpCode);
+    }
+
+    @Override
+    @Transactional
+    public boolean verifyAndConsume(String identifier, String code) {
+        Optional<OtpCode> otpCodeOpt = otpCodeRepository.findValidOtp(identifier, code, LocalDateTime.now());
+        if (otpCodeOpt.isEmpty()) {
+            return false;
+        }
+
+        // Mark OTP as used
+        OtpCode otpCode = otpCodeOpt.get();
+        otpCode.setUsed(true);
+        otpCodeRepository.save(otpCode);
+
+        // Mark all other OTPs for this identifier as used
+        otpCodeRepository.markAllAsUsedForPhone(identifier);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired(LocalDateTime now) {
+        return otpCodeRepository.deleteExpiredAndUsedOtps(now);
+    }
+}
@@ -0,0 +1,69 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.domain.RefreshToken;
+import com.myapp.authservice.repository.RefreshTokenRepository;
+import com.myapp.authservice.repository.UserRepository;
+import com.myapp.authservice.util.CuidGenerator;
+import com.myapp.authservice.util.TokenHasher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token store backed by the refresh_tokens table.
+ * Only SHA-256 digests of the tokens are persisted.
+ * Joins the caller's transaction when there is one.
+ */
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public void save(String userId, String token, LocalDateTime expiresAt) {
+        RefreshToken refreshToken = RefreshToken.builder()
+                .id(CuidGenerator.generate())
+                .tokenHash(TokenHasher.sha256(token))
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(expiresAt)
+                .build();
+        refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    @Transactional
+    public boolean rotate(String userId, String oldToken, String newToken, LocalDateTime expiresAt) {
+        if (refreshTokenRepository.deleteByUserIdAndTokenHash(userId, TokenHasher.sha256(oldToken)) == 0) {
+            return false;
+        }
+
+        // Delete ALL refresh tokens for this user to prevent race-condition duplicates
+        // when multiple API clients attempt concurrent refreshes
+        refreshTokenRepository.deleteAllByUserId(userId);
+        refreshTokenRepository.flush();
+
+        save(userId, newToken, expiresAt);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String userId, String token) {
+        refreshTokenRepository.deleteByUserIdAndTokenHash(userId, TokenHasher.sha256(token));
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(String userId) {
+        refreshTokenRepository.deleteAllByUserId(userId);
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired(LocalDateTime now) {
+        return refreshTokenRepository.deleteExpiredTokens(now);
+    }
+}
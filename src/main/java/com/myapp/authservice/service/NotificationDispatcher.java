@@ -0,0 +1,223 @@
+package com.myapp.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapp.authservice.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking OTP notification dispatch.
+ *
+ * Requests are handed to a bounded queue after the OTP transaction commits and sent by
+ * a worker pool, so OTP send latency no longer depends on notification-service (or the
+ * SMS provider behind it) and no DB connection is held while sending.
+ *
+ * - One pool and queue per channel (SMS / EMAIL), sized to the channel's concurrency
+ *   limit: a saturated channel queues its own requests without delaying the other
+ * - Exponential backoff retries, capped by the OTP lifetime (a late OTP is useless)
+ * - Dead letters: exhausted or rejected requests are recorded in the Redis list
+ *   notification:dead-letter (metadata only, never the OTP code)
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    static final String DEAD_LETTER_KEY = "notification:dead-letter";
+
+    private final NotificationServiceClient client;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ThreadPoolExecutor> channelWorkers;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int deadLetterMaxSize;
+
+    public NotificationDispatcher(
+            NotificationServiceClient client,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.notification-service.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.notification-service.dispatch.sms-concurrency:4}") int smsConcurrency,
+            @Value("${app.notification-service.dispatch.email-concurrency:4}") int emailConcurrency,
+            @Value("${app.notification-service.dispatch.max-attempts:4}") int maxAttempts,
+            @Value("${app.notification-service.dispatch.initial-backoff:500ms}") Duration initialBackoff,
+            @Value("${app.notification-service.dispatch.max-backoff:10s}") Duration maxBackoff,
+            @Value("${app.notification-service.dispatch.dead-letter-max-size:10000}") int deadLetterMaxSize) {
+        this.client = client;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.deadLetterMaxSize = deadLetterMaxSize;
+        this.channelWorkers = Map.of(
+                "SMS", channelWorkers("sms", smsConcurrency, queueCapacity),
+                "EMAIL", channelWorkers("email", emailConcurrency, queueCapacity));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        channelWorkers.forEach((channel, workers) -> meterRegistry.gauge("notification.queue.size",
+                Tags.of("channel", channel), workers.getQueue(), Queue::size));
+    }
+
+    private static ThreadPoolExecutor channelWorkers(String channel, int concurrency, int queueCapacity) {
+        AtomicInteger workerIds = new AtomicInteger();
+        return new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-" + channel + "-" + workerIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        channelWorkers.values().forEach(ThreadPoolExecutor::shutdown);
+        for (Map.Entry<String, ThreadPoolExecutor> entry : channelWorkers.entrySet()) {
+            if (!entry.getValue().awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Notification {} workers did not finish, {} requests dropped",
+                        entry.getKey(), entry.getValue().getQueue().size());
+            }
+        }
+    }
+
+    /**
+     * Send OTP via SMS once the current transaction commits.
+     *
+     * @param phone E.164 formatted phone number (e.g., +919876543210)
+     * @param otp   The OTP code
+     * @param ttlMinutes Time to live in minutes
+     */
+    public void dispatchOtpSms(String phone, String otp, int ttlMinutes) {
+        dispatch("SMS", phone, client.otpRequest("SMS", phone, otp, ttlMinutes), ttlMinutes);
+    }
+
+    /**
+     * Send OTP via Email once the current transaction commits.
+     *
+     * @param email    Email address
+     * @param otp      The OTP code
+     * @param ttlMinutes Time to live in minutes
+     */
+    public void dispatchOtpEmail(String email, String otp, int ttlMinutes) {
+        dispatch("EMAIL", email, client.otpRequest("EMAIL", email, otp, ttlMinutes), ttlMinutes);
+    }
+
+    private void dispatch(String channel, String recipient, Map<String, Object> request, int ttlMinutes) {
+        Job job = new Job(channel, recipient, request, Instant.now().plus(Duration.ofMinutes(ttlMinutes)));
+        AfterCommit.execute(() -> submit(job));
+    }
+
+    private void submit(Job job) {
+        try {
+            channelWorkers.get(job.getChannel()).execute(() -> attempt(job));
+        } catch (RejectedExecutionException e) {
+            deadLetter(job, "Dispatch queue full");
+        }
+    }
+
+    private void attempt(Job job) {
+        job.attempts++;
+        try {
+            client.send(job.getRequest());
+            meterRegistry.counter("notification.sent", "channel", job.getChannel()).increment();
+            log.info("OTP {} sent successfully to: {}", job.getChannel(), maskRecipient(job.getRecipient()));
+        } catch (Exception e) {
+            meterRegistry.counter("notification.failed", "channel", job.getChannel()).increment();
+            retryOrDeadLetter(job, e.getMessage());
+        }
+    }
+
+    private void retryOrDeadLetter(Job job, String error) {
+        long backoffMillis = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() << Math.min(job.attempts - 1, 20));
+        Instant nextAttempt = Instant.now().plusMillis(backoffMillis);
+
+        if (job.attempts >= maxAttempts || nextAttempt.isAfter(job.getDeadline())) {
+            deadLetter(job, error);
+            return;
+        }
+        log.warn("OTP {} to {} failed (attempt {}/{}), retrying in {} ms: {}", job.getChannel(),
+                maskRecipient(job.getRecipient()), job.attempts, maxAttempts, backoffMillis, error);
+        schedule(job, Duration.ofMillis(backoffMillis));
+    }
+
+    private void schedule(Job job, Duration delay) {
+        try {
+            retryScheduler.schedule(() -> submit(job), delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            deadLetter(job, "Dispatcher shutting down");
+        }
+    }
+
+    private void deadLetter(Job job, String error) {
+        meterRegistry.counter("notification.dead_lettered", "channel", job.getChannel()).increment();
+        log.error("Failed to send OTP {} to {} after {} attempts: {}", job.getChannel(),
+                maskRecipient(job.getRecipient()), job.attempts, error);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("channel", job.getChannel());
+        entry.put("templateKey", job.getRequest().get("templateKey"));
+        entry.put("recipient", maskRecipient(job.getRecipient()));
+        entry.put("idempotencyKey", job.getRequest().get("idempotencyKey"));
+        entry.put("attempts", job.attempts);
+        entry.put("error", error);
+        entry.put("failedAt", Instant.now().toString());
+        try {
+            redisTemplate.opsForList().leftPush(DEAD_LETTER_KEY, objectMapper.writeValueAsString(entry));
+            redisTemplate.opsForList().trim(DEAD_LETTER_KEY, 0, deadLetterMaxSize - 1);
+        } catch (Exception e) {
+            log.error("Failed to record notification dead letter: {}", e.getMessage());
+        }
+    }
+
+    private String maskRecipient(String recipient) {
+        if (recipient == null || recipient.length() < 4) return "****";
+        if (recipient.contains("@")) {
+            int atIndex = recipient.indexOf("@");
+            return recipient.substring(0, Math.min(3, atIndex)) + "***" + recipient.substring(atIndex);
+        }
+        return recipient.substring(0, 4) + "****" + recipient.substring(recipient.length() - 2);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Job {
+        private final String channel;
+        private final String recipient;
+        private final Map<String, Object> request;
+        private final Instant deadline;
+        private int attempts; // only touched by the single worker currently running the job
+    }
+}
@@ -1,22 +1,27 @@
 package com.myapp.authservice.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Map;
 
 /**
  * Client for calling notification-service internal endpoints.
  * Used to send OTP via SMS/Email after generation.
+ *
+ * Calls are synchronous and throw on failure; {@link NotificationDispatcher} runs them
+ * off the request thread with retries.
  */
 @Component
 public class NotificationServiceClient {
 
-    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceClient.class);
     private static final String API_KEY_HEADER = "X-API-Key";
 
     private final RestClient restClient;
@@ -24,91 +29,64 @@ public class NotificationServiceClient {
 
     public NotificationServiceClient(
             @Value("${app.notification-service.base-url}") String baseUrl,
-            @Value("${app.notification-service.api-key}") String apiKey) {
+            @Value("${app.notification-service.api-key}") String apiKey,
+            @Value("${app.notification-service.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${app.notification-service.read-timeout:5s}") Duration readTimeout,
+            ObservationRegistry observationRegistry) {
+        // java.net.http keeps a pool of persistent connections and does not pin virtual threads
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
         this.restClient = RestClient.builder()
                 .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                // http.client.requests timers (uri, status, outcome) and client spans
+                .observationRegistry(observationRegistry)
                 .build();
         this.apiKey = apiKey;
     }
 
     /**
-     * Send OTP via SMS.
+     * Build an OTP notification request.
      *
-     * @param phone E.164 formatted phone number (e.g., +919876543210)
-     * @param otp   The OTP code
+     * @param channel    SMS or EMAIL
+     * @param recipient  E.164 phone number or email address
+     * @param otp        The OTP code
      * @param ttlMinutes Time to live in minutes
      */
-    public void sendOtpSms(String phone, String otp, int ttlMinutes) {
-        try {
-            Map<String, Object> request = Map.of(
-                    "templateKey", "OTP_SMS",
-                    "channel", "SMS",
-                    "recipient", phone,
-                    "data", Map.of(
-                            "otp", otp,
-                            "ttl", String.valueOf(ttlMinutes)
-                    ),
-                    "priority", "HIGH",
-                    "idempotencyKey", "OTP_SMS:" + phone + ":" + System.currentTimeMillis()
-            );
-
-            restClient.post()
-                    .uri("/internal/notifications/send")
-                    .header(API_KEY_HEADER, apiKey)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(request)
-                    .retrieve()
-                    .toBodilessEntity();
-
-            logger.info("OTP SMS sent successfully to: {}", maskRecipient(phone));
-        } catch (Exception e) {
-            // Log but don't fail the OTP generation — best effort delivery
-            logger.error("Failed to send OTP SMS to {}: {}", maskRecipient(phone), e.getMessage());
-        }
+    public Map<String, Object> otpRequest(String channel, String recipient, String otp, int ttlMinutes) {
+        String templateKey = "OTP_" + channel;
+        return Map.of(
+                "templateKey", templateKey,
+                "channel", channel,
+                "recipient", recipient,
+                "data", Map.of(
+                        "otp", otp,
+                        "ttl", String.valueOf(ttlMinutes)
+                ),
+                "priority", "HIGH",
+                // Fixed per OTP so retries are deduplicated by notification-service
+                "idempotencyKey", templateKey + ":" + recipient + ":" + System.currentTimeMillis()
+        );
     }
 
     /**
-     * Send OTP via Email.
+     * Send a notification.
      *
-     * @param email    Email address
-     * @param otp      The OTP code
-     * @param ttlMinutes Time to live in minutes
+     * @param request Request body (see {@link #otpRequest})
+     * @throws RestClientException on timeout, connection failure or non-2xx response
      */
-    public void sendOtpEmail(String email, String otp, int ttlMinutes) {
-        try {
-            Map<String, Object> request = Map.of(
-                    "templateKey", "OTP_EMAIL",
-                    "channel", "EMAIL",
-                    "recipient", email,
-                    "data", Map.of(
-                            "otp", otp,
-                            "ttl", String.valueOf(ttlMinutes)
-                    ),
-                    "priority", "HIGH",
-                    "idempotencyKey", "OTP_EMAIL:" + email + ":" + System.currentTimeMillis()
-            );
-
-            restClient.post()
-                    .uri("/internal/notifications/send")
-                    .header(API_KEY_HEADER, apiKey)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(request)
-                    .retrieve()
-                    .toBodilessEntity();
-
-            logger.info("OTP Email sent successfully to: {}", maskRecipient(email));
-        } catch (Exception e) {
-            // Log but don't fail the OTP generation — best effort delivery
-            logger.error("Failed to send OTP Email to {}: {}", maskRecipient(email), e.getMessage());
-        }
-    }
-
-    private String maskRecipient(String recipient) {
-        if (recipient == null || recipient.length() < 4) return "****";
-        if (recipient.contains("@")) {
-            int atIndex = recipient.indexOf("@");
-            return recipient.substring(0, Math.min(3, atIndex)) + "***" + recipient.substring(atIndex);
-        }
-        return recipient.substring(0, 4) + "****" + recipient.substring(recipient.length() - 2);
+    public void send(Map<String, Object> request) {
+        restClient.post()
+                .uri("/internal/notifications/send")
+                .header(API_KEY_HEADER, apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .toBodilessEntity();
     }
 }
@@ -0,0 +1,208 @@
+package com.myapp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myapp.authservice.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deferred identity-service onboarding.
+ *
+ * Login used to call identity-service synchronously inside the login transaction on
+ * every login. Now:
+ * - The call is submitted after the login transaction commits and runs on a bounded
+ *   worker pool, so login latency no longer depends on identity-service
+ * - Users onboarded recently are remembered locally and in Redis (identity:onboarded:{userId},
+ *   TTL app.identity-service.onboarding.recently-onboarded-ttl) and skipped; only a successful
+ *   call marks a user. The TTL is short: the (idempotent) call also resolves invitations
+ *   created since the previous one, so later logins must still make it
+ * - Duplicate requests for a user still waiting to be sent are coalesced into one call
+ * - A circuit breaker stops calling identity-service for a while after consecutive failures,
+ *   then lets a single trial call through; its outcome closes or re-opens the circuit
+ *
+ * Anything not sent (queue full, circuit open, failure) is simply retried on the user's
+ * next login, which matches the previous best-effort behaviour.
+ */
+@Slf4j
+@Component
+public class OnboardingDispatcher {
+
+    static final String ONBOARDED_KEY_PREFIX = "identity:onboarded:";
+
+    private final IdentityServiceClient client;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Request> pending = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> onboarded;
+    private final Duration recentlyOnboardedTtl;
+
+    // Circuit breaker
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntilNanos; // 0 while closed
+
+    public OnboardingDispatcher(
+            IdentityServiceClient client,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.identity-service.onboarding.workers:4}") int workerThreads,
+            @Value("${app.identity-service.onboarding.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.identity-service.onboarding.recently-onboarded-ttl:15m}") Duration recentlyOnboardedTtl,
+            @Value("${app.identity-service.onboarding.local-cache-size:100000}") long localCacheSize,
+            @Value("${app.identity-service.onboarding.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.identity-service.onboarding.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.client = client;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.recentlyOnboardedTtl = recentlyOnboardedTtl;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.onboarded = Caffeine.newBuilder()
+                .maximumSize(localCacheSize)
+                .expireAfterWrite(recentlyOnboardedTtl)
+                .build();
+
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "identity-onboard-" + workerIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        meterRegistry.gauge("identity.onboard.queue.size", workers.getQueue(), java.util.Queue::size);
+        meterRegistry.gauge("identity.onboard.circuit.open", this, d -> d.isOpen() ? 1 : 0);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Onboarding workers did not finish, {} requests dropped", workers.getQueue().size());
+        }
+    }
+
+    /**
+     * Onboard the user in identity-service once the current transaction commits,
+     * unless the user was onboarded recently.
+     */
+    public void onboardUser(String authUserId, String name, String phone, String email) {
+        if (onboarded.getIfPresent(authUserId) != null) {
+            meterRegistry.counter("identity.onboard.skipped").increment();
+            return;
+        }
+        Request request = new Request(authUserId, name, phone, email);
+        AfterCommit.execute(() -> submit(request));
+    }
+
+    private void submit(Request request) {
+        // Coalesce: a newer request replaces one still waiting, only the first schedules a task
+        if (pending.put(request.authUserId(), request) != null) {
+            meterRegistry.counter("identity.onboard.coalesced").increment();
+            return;
+        }
+        try {
+            workers.execute(() -> run(request.authUserId()));
+        } catch (RejectedExecutionException e) {
+            pending.remove(request.authUserId());
+            meterRegistry.counter("identity.onboard.rejected").increment();
+            log.warn("Onboarding queue full, deferring authUserId={} to next login", request.authUserId());
+        }
+    }
+
+    private void run(String authUserId) {
+        Request request = pending.remove(authUserId);
+        if (request == null) {
+            return;
+        }
+        if (isOnboardedInRedis(authUserId)) {
+            onboarded.put(authUserId, Boolean.TRUE);
+            meterRegistry.counter("identity.onboard.skipped").increment();
+            return;
+        }
+        // Open: reject until the open duration elapses. Half-open after that: exactly one
+        // trial call, everything else is rejected until it has closed or re-opened the circuit
+        long until = openUntilNanos;
+        boolean trial = until != 0;
+        if (trial && (System.nanoTime() - until < 0 || !trialInFlight.compareAndSet(false, true))) {
+            meterRegistry.counter("identity.onboard.rejected").increment();
+            log.debug("Identity-service circuit open, deferring authUserId={} to next login", authUserId);
+            return;
+        }
+
+        try {
+            client.onboardUser(request.authUserId(), request.name(), request.phone(), request.email());
+            consecutiveFailures.set(0);
+            if (trial) {
+                openUntilNanos = 0;
+                log.info("Identity-service circuit closed");
+            }
+            markOnboarded(authUserId);
+            meterRegistry.counter("identity.onboard.sent").increment();
+            log.info("Successfully onboarded user in identity-service: authUserId={}", authUserId);
+        } catch (Exception e) {
+            meterRegistry.counter("identity.onboard.failed").increment();
+            if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                openUntilNanos = System.nanoTime() + openDurationNanos;
+                consecutiveFailures.set(0);
+                log.warn("Identity-service circuit opened for {} ms", TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+            }
+            // Not marked onboarded: linkage will happen on next login attempt
+            log.warn("Failed to onboard user in identity-service: authUserId={}, error={}",
+                    authUserId, e.getMessage());
+        } finally {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * Open or half-open (a trial call has not succeeded yet).
+     */
+    private boolean isOpen() {
+        return openUntilNanos != 0;
+    }
+
+    private boolean isOnboardedInRedis(String authUserId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(ONBOARDED_KEY_PREFIX + authUserId));
+        } catch (Exception e) {
+            // Redis unavailable: fall through to the (idempotent) call
+            return false;
+        }
+    }
+
+    private void markOnboarded(String authUserId) {
+        onboarded.put(authUserId, Boolean.TRUE);
+        try {
+            redisTemplate.opsForValue().set(ONBOARDED_KEY_PREFIX + authUserId, "1", recentlyOnboardedTtl);
+        } catch (Exception e) {
+            log.warn("Failed to record onboarded user in Redis: authUserId={}, error={}",
+                    authUserId, e.getMessage());
+        }
+    }
+
+    private record Request(String authUserId, String name, String phone, String email) {
+    }
+}
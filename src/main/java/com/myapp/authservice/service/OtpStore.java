@@ -0,0 +1,34 @@
+package com.myapp.authservice.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage for issued OTP codes, keyed by identifier (E.164 phone or normalized email).
+ *
+ * Implementations:
+ * - {@link JpaOtpStore}: otp_codes table (default)
+ * - {@link RedisOtpStore}: one key per identifier holding the current code, with TTL
+ *
+ * Selected with app.otp.store (database | redis).
+ */
+public interface OtpStore {
+
+    /**
+     * Store a newly issued OTP for an identifier.
+     */
+    void save(String identifier, String code, LocalDateTime expiresAt);
+
+    /**
+     * Verify an OTP and, if it is valid, invalidate every outstanding OTP of the identifier.
+     *
+     * @return true if the code was valid (and is now consumed)
+     */
+    boolean verifyAndConsume(String identifier, String code);
+
+    /**
+     * Remove expired and used OTPs (cleanup job).
+     *
+     * @return Number of OTPs removed
+     */
+    int purgeExpired(LocalDateTime now);
+}
@@ -0,0 +1,120 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt (passkey hashing and matching) on a bounded, CPU-sized pool.
+ *
+ * BCrypt at strength 10-12 is 50-250 ms of pure CPU. Running it on request threads lets a
+ * login storm put hundreds of hashes on the cores at once, so every login slows down
+ * together. Here at most one hash per core runs at a time, the rest wait in a bounded
+ * queue, and once the queue is full new work is shed with a 429
+ * (RateLimitExceededException) instead of queueing without limit.
+ *
+ * Callers must not hold a DB connection while waiting.
+ */
+@Slf4j
+@Component
+public class PasskeyHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor workers;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+
+    public PasskeyHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.passkey-hashing.threads:0}") int threads,
+            @Value("${app.security.passkey-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.passkey-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // 0 = one thread per available core
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "passkey-hash-" + workerIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        meterRegistry.gauge("passkey.hash.queue.size", workers.getQueue(), java.util.Queue::size);
+        meterRegistry.gauge("passkey.hash.active", workers, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Check a raw passkey against its stored hash.
+     *
+     * @throws RateLimitExceededException if the hashing queue is full
+     */
+    public boolean matches(String rawPasskey, String passkeyHash) {
+        return run("matches", () -> passwordEncoder.matches(rawPasskey, passkeyHash));
+    }
+
+    /**
+     * Hash a raw passkey at the configured strength.
+     *
+     * @throws RateLimitExceededException if the hashing queue is full
+     */
+    public String encode(String rawPasskey) {
+        return run("encode", () -> passwordEncoder.encode(rawPasskey));
+    }
+
+    /**
+     * Whether the stored hash is weaker than the configured strength and should be
+     * replaced on the next successful login (cheap, parses the hash only).
+     */
+    public boolean upgradeEncoding(String passkeyHash) {
+        return passwordEncoder.upgradeEncoding(passkeyHash);
+    }
+
+    private <T> T run(String operation, Supplier<T> work) {
+        Future<T> future;
+        try {
+            future = workers.submit(work::get);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("passkey.hash.rejected", "operation", operation).increment();
+            log.warn("Passkey hashing queue full, shedding {} request", operation);
+            throw new RateLimitExceededException("Too many login attempts. Please try again shortly.",
+                    retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for passkey hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Passkey hashing failed", e.getCause());
+        }
+    }
+}
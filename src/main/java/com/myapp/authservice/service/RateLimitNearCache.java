@@ -0,0 +1,245 @@
+package com.myapp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local near-cache in front of the Bucket4j Redis buckets.
+ *
+ * - Denials: when Redis rejects a key, the key is rejected locally until the refill time
+ *   Redis reported, without further round trips (blocked clients retrying in a loop are
+ *   the hottest keys)
+ * - Slices: for limits with capacity >= app.rate-limit.near-cache.min-capacity, a slice of
+ *   the distributed quota is reserved in Redis and handed out locally; the next slice is
+ *   prefetched asynchronously when half of the current one is used
+ * - Strict mode: once the Redis bucket is close to exhaustion (or a slice comes back
+ *   short) every check goes to Redis again, one token at a time
+ *
+ * Tokens are taken from Redis before they are handed out and unused tokens are never
+ * returned (the slice just expires), so the near-cache can only make limits stricter,
+ * never looser, across nodes.
+ */
+@Slf4j
+@Component
+public class RateLimitNearCache {
+
+    /**
+     * Outcome of a rate-limit check.
+     *
+     * @param remainingTokens      tokens left (locally reserved ones when served from a slice)
+     * @param nanosToWaitForRefill time until the next token, when not consumed
+     */
+    public record Decision(boolean consumed, long remainingTokens, long nanosToWaitForRefill) {
+    }
+
+    private final ProxyManager<String> proxyManager;
+    private final AsyncProxyManager<String> asyncProxyManager;
+    private final boolean enabled;
+    private final long minCapacity;
+    private final double sliceFraction;
+    private final double strictFraction;
+
+    private final Cache<String, Long> denials;
+    private final Cache<String, Slice> slices;
+    private volatile long configurationVersion;
+
+    private final Counter localHits;
+    private final Counter localDenials;
+    private final Counter remoteChecks;
+
+    public RateLimitNearCache(ProxyManager<String> proxyManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.rate-limit.near-cache.enabled:true}") boolean enabled,
+                              @Value("${app.rate-limit.near-cache.max-keys:100000}") long maxKeys,
+                              @Value("${app.rate-limit.near-cache.min-capacity:100}") long minCapacity,
+                              @Value("${app.rate-limit.near-cache.slice-fraction:0.05}") double sliceFraction,
+                              @Value("${app.rate-limit.near-cache.strict-fraction:0.2}") double strictFraction,
+                              @Value("${app.rate-limit.near-cache.slice-ttl:5s}") Duration sliceTtl) {
+        this.proxyManager = proxyManager;
+        this.asyncProxyManager = proxyManager.isAsyncModeSupported() ? proxyManager.asAsync() : null;
+        this.enabled = enabled;
+        this.minCapacity = minCapacity;
+        this.sliceFraction = sliceFraction;
+        this.strictFraction = strictFraction;
+        this.denials = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new UntilDeadline())
+                .build();
+        // Unused reserved tokens are dropped with the slice, which only tightens the limit
+        this.slices = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(sliceTtl)
+                .build();
+
+        this.localHits = meterRegistry.counter("rate_limit.near_cache.hits");
+        this.localDenials = meterRegistry.counter("rate_limit.near_cache.denials");
+        this.remoteChecks = meterRegistry.counter("rate_limit.near_cache.remote");
+    }
+
+    /**
+     * Try to consume one token for the key.
+     *
+     * @param configurationVersion Policy version; existing buckets are migrated to newer ones
+     */
+    public Decision tryConsume(String key, BucketConfiguration configuration, long configurationVersion) {
+        if (!enabled) {
+            return remote(key, configuration, configurationVersion);
+        }
+        if (configurationVersion != this.configurationVersion) {
+            // Policies changed: cached denials and slices were based on the old limits
+            denials.invalidateAll();
+            slices.invalidateAll();
+            this.configurationVersion = configurationVersion;
+        }
+
+        Long deniedUntil = denials.getIfPresent(key);
+        if (deniedUntil != null) {
+            long wait = deniedUntil - System.nanoTime();
+            if (wait > 0) {
+                localDenials.increment();
+                return new Decision(false, 0, wait);
+            }
+        }
+
+        long capacity = capacityOf(configuration);
+        if (asyncProxyManager == null || capacity < minCapacity) {
+            return remote(key, configuration, configurationVersion);
+        }
+
+        long sliceSize = Math.max(1, (long) (capacity * sliceFraction));
+        Slice slice = slices.get(key, k -> new Slice());
+        if (!slice.strict) {
+            long left = slice.take();
+            if (left >= 0) {
+                localHits.increment();
+                if (left <= sliceSize / 2) {
+                    prefetch(key, configuration, configurationVersion, slice, sliceSize);
+                }
+                return new Decision(true, left, 0);
+            }
+        }
+
+        Decision decision = remote(key, configuration, configurationVersion);
+        if (decision.consumed()) {
+            slice.strict = decision.remainingTokens() < capacity * strictFraction;
+            if (!slice.strict) {
+                prefetch(key, configuration, configurationVersion, slice, sliceSize);
+            }
+        }
+        return decision;
+    }
+
+    /**
+     * Forget everything cached locally for the key (used when its Redis bucket is reset).
+     */
+    public void invalidate(String key) {
+        denials.invalidate(key);
+        slices.invalidate(key);
+    }
+
+    private Decision remote(String key, BucketConfiguration configuration, long configurationVersion) {
+        remoteChecks.increment();
+        ConsumptionProbe probe = proxyManager.builder()
+                .withImplicitConfigurationReplacement(configurationVersion, TokensInheritanceStrategy.AS_IS)
+                .build(key, () -> configuration)
+                .tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed() && enabled) {
+            denials.put(key, System.nanoTime() + probe.getNanosToWaitForRefill());
+        }
+        return new Decision(probe.isConsumed(), probe.getRemainingTokens(), probe.getNanosToWaitForRefill());
+    }
+
+    private void prefetch(String key, BucketConfiguration configuration, long configurationVersion,
+                          Slice slice, long sliceSize) {
+        if (!slice.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        asyncProxyManager.builder()
+                .withImplicitConfigurationReplacement(configurationVersion, TokensInheritanceStrategy.AS_IS)
+                .build(key, () -> CompletableFuture.completedFuture(configuration))
+                .tryConsumeAsMuchAsPossible(sliceSize)
+                .whenComplete((reserved, error) -> {
+                    if (error != null) {
+                        log.warn("Rate limit slice prefetch failed for key: {}: {}", key, error.getMessage());
+                    } else {
+                        slice.tokens.addAndGet(reserved);
+                        // A short slice means the bucket is nearly drained: stop reserving
+                        if (reserved < sliceSize) {
+                            slice.strict = true;
+                        }
+                    }
+                    slice.prefetching.set(false);
+                });
+    }
+
+    private static long capacityOf(BucketConfiguration configuration) {
+        long capacity = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            capacity = Math.min(capacity, bandwidth.getCapacity());
+        }
+        return capacity;
+    }
+
+    /**
+     * Locally reserved tokens for one key.
+     */
+    private static final class Slice {
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean prefetching = new AtomicBoolean();
+        private volatile boolean strict;
+
+        /**
+         * @return tokens left after taking one, or -1 if the slice is empty
+         */
+        long take() {
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return -1;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return current - 1;
+        }
+    }
+
+    /**
+     * Evicts each denial when the bucket refills.
+     */
+    private static class UntilDeadline implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String key, Long deadlineNanos, long currentTime) {
+            return Math.max(0, deadlineNanos - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Long deadlineNanos, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, deadlineNanos, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Long deadlineNanos, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
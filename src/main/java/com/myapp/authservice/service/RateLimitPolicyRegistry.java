@@ -0,0 +1,176 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.config.RateLimitPolicyProperties;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rate limit policies by name and calling code.
+ *
+ * Base policies come from app.rate-limit.policy. Runtime overrides are stored in the
+ * Redis hash rate:policy:overrides (field "policy" or "policy:callingCode", value
+ * "capacity/period") and a version counter rate:policy:version, so a change made on
+ * one instance is picked up by all of them within app.rate-limit.policy.refresh-interval-ms.
+ *
+ * The version is passed to Bucket4j as the desired configuration version, so existing
+ * buckets are migrated in place on their next check (tokens carried over, capped at the
+ * new capacity). Changes to the base policies in application.yml only reach existing
+ * buckets once they expire, as the version does not change.
+ */
+@Slf4j
+@Component
+public class RateLimitPolicyRegistry {
+
+    static final String OVERRIDES_KEY = "rate:policy:overrides";
+    static final String VERSION_KEY = "rate:policy:version";
+
+    /**
+     * Effective limit of a policy, for display.
+     */
+    public record Policy(long capacity, Duration period) {
+    }
+
+    private record Snapshot(long version, Map<String, Policy> policies,
+                            Map<String, BucketConfiguration> configurations) {
+    }
+
+    private final RateLimitPolicyProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private volatile Snapshot snapshot;
+
+    public RateLimitPolicyRegistry(RateLimitPolicyProperties properties, StringRedisTemplate redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.snapshot = build(0, Map.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    /**
+     * Pick up overrides made on other instances
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.policy.refresh-interval-ms:10000}")
+    public void refresh() {
+        try {
+            String value = redisTemplate.opsForValue().get(VERSION_KEY);
+            long version = value != null ? Long.parseLong(value) : 0;
+            if (version == snapshot.version()) {
+                return;
+            }
+            Map<Object, Object> overrides = redisTemplate.opsForHash().entries(OVERRIDES_KEY);
+            Map<String, Policy> parsed = new HashMap<>();
+            overrides.forEach((field, limit) -> parsed.put((String) field, parse((String) limit)));
+            snapshot = build(version, parsed);
+            log.info("Rate limit policies updated to version {}: {}", version, snapshot.policies());
+        } catch (Exception e) {
+            log.warn("Failed to refresh rate limit policies, keeping version {}: {}",
+                    snapshot.version(), e.getMessage());
+        }
+    }
+
+    /**
+     * Configuration version to migrate buckets to.
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * Bucket configuration of a policy for an identifier: the most specific calling-code
+     * policy for E.164 phone numbers, otherwise the default.
+     *
+     * @throws IllegalArgumentException if the policy does not exist
+     */
+    public BucketConfiguration configurationFor(String policy, String identifier) {
+        Map<String, BucketConfiguration> configurations = snapshot.configurations();
+        if (identifier != null && identifier.startsWith("+")) {
+            // Calling codes are 1-3 digits; prefer the longest match
+            for (int length = Math.min(3, identifier.length() - 1); length >= 1; length--) {
+                BucketConfiguration configuration =
+                        configurations.get(policy + ":" + identifier.substring(1, 1 + length));
+                if (configuration != null) {
+                    return configuration;
+                }
+            }
+        }
+        BucketConfiguration configuration = configurations.get(policy);
+        if (configuration == null) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + policy);
+        }
+        return configuration;
+    }
+
+    /**
+     * Effective policies, keyed by "policy" or "policy:callingCode".
+     */
+    public Map<String, Policy> policies() {
+        return snapshot.policies();
+    }
+
+    /**
+     * Override a policy on all instances.
+     *
+     * @param callingCode Calling code without '+', or null for the default policy
+     */
+    public void update(String policy, String callingCode, long capacity, Duration period) {
+        if (!properties.getDefaults().containsKey(policy)) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + policy);
+        }
+        if (capacity <= 0 || period == null || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        redisTemplate.opsForHash().put(OVERRIDES_KEY, field(policy, callingCode), capacity + "/" + period);
+        redisTemplate.opsForValue().increment(VERSION_KEY);
+        refresh();
+    }
+
+    /**
+     * Remove a runtime override, falling back to the configured policy.
+     */
+    public void remove(String policy, String callingCode) {
+        redisTemplate.opsForHash().delete(OVERRIDES_KEY, field(policy, callingCode));
+        redisTemplate.opsForValue().increment(VERSION_KEY);
+        refresh();
+    }
+
+    private Snapshot build(long version, Map<String, Policy> overrides) {
+        Map<String, Policy> policies = new TreeMap<>();
+        properties.getDefaults().forEach((name, limit) ->
+                policies.put(name, new Policy(limit.getCapacity(), limit.getPeriod())));
+        properties.getCountries().forEach((callingCode, limits) -> limits.forEach((name, limit) ->
+                policies.put(field(name, callingCode), new Policy(limit.getCapacity(), limit.getPeriod()))));
+        policies.putAll(overrides);
+
+        Map<String, BucketConfiguration> configurations = new HashMap<>();
+        policies.forEach((key, policy) -> configurations.put(key, BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(policy.capacity())
+                        .refillGreedy(policy.capacity(), policy.period())
+                        .build())
+                .build()));
+        return new Snapshot(version, Map.copyOf(policies), configurations);
+    }
+
+    private static String field(String policy, String callingCode) {
+        return callingCode == null || callingCode.isBlank() ? policy : policy + ":" + callingCode;
+    }
+
+    private static Policy parse(String value) {
+        int slash = value.indexOf('/');
+        return new Policy(Long.parseLong(value.substring(0, slash)), Duration.parse(value.substring(slash + 1)));
+    }
+}
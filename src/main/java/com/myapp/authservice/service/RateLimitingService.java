@@ -1,16 +1,18 @@
 package com.myapp.authservice.service;
 
 import com.myapp.authservice.exception.RateLimitExceededException;
-import io.github.bucket4j.Bucket;
+import com.myapp.authservice.util.AfterCommit;
+import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.BucketConfiguration;
-import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
 
 /**
  * Rate Limiting Service using Bucket4j
@@ -22,81 +24,134 @@ import java.util.function.Supplier;
 public class RateLimitingService {
 
     private final ProxyManager<String> proxyManager;
-    private final BucketConfiguration otpSendConfiguration;
-    private final BucketConfiguration otpVerifyConfiguration;
-    private final BucketConfiguration passkeyLoginConfiguration;
+    private final RateLimitNearCache nearCache;
+    private final CompositeRateLimiter compositeRateLimiter;
+    private final RateLimitPolicyRegistry policyRegistry;
+    private final MeterRegistry meterRegistry;
 
     private static final String OTP_SEND_PREFIX = "rate:otp:send:";
     private static final String OTP_VERIFY_PREFIX = "rate:otp:verify:";
     private static final String PASSKEY_LOGIN_PREFIX = "rate:passkey:login:";
 
+    // Policy names (also the composite limiter endpoints)
+    private static final String OTP_SEND = "otp-send";
+    private static final String OTP_VERIFY = "otp-verify";
+    private static final String PASSKEY_LOGIN = "passkey-login";
+
     /**
      * Check OTP send rate limit
      * @param phone Phone number to check
+     * @param ipAddress Client IP (composite limiter only)
      * @throws RateLimitExceededException if rate limit is exceeded
      */
-    public void checkOtpSendLimit(String phone) {
-        checkLimit(OTP_SEND_PREFIX + phone, () -> otpSendConfiguration,
+    public void checkOtpSendLimit(String phone, String ipAddress) {
+        checkLimit(OTP_SEND, OTP_SEND_PREFIX, phone, ipAddress,
                 "Too many OTP requests. Please wait before requesting another OTP.");
     }
 
     /**
      * Check OTP verify rate limit
      * @param phone Phone number to check
+     * @param ipAddress Client IP (composite limiter only)
      * @throws RateLimitExceededException if rate limit is exceeded
      */
-    public void checkOtpVerifyLimit(String phone) {
-        checkLimit(OTP_VERIFY_PREFIX + phone, () -> otpVerifyConfiguration,
+    public void checkOtpVerifyLimit(String phone, String ipAddress) {
+        checkLimit(OTP_VERIFY, OTP_VERIFY_PREFIX, phone, ipAddress,
                 "Too many verification attempts. Please wait before trying again.");
     }
 
     /**
      * Check passkey login rate limit
      * @param phone Phone number to check
+     * @param ipAddress Client IP (composite limiter only)
      * @throws RateLimitExceededException if rate limit is exceeded
      */
-    public void checkPasskeyLoginLimit(String phone) {
-        checkLimit(PASSKEY_LOGIN_PREFIX + phone, () -> passkeyLoginConfiguration,
+    public void checkPasskeyLoginLimit(String phone, String ipAddress) {
+        checkLimit(PASSKEY_LOGIN, PASSKEY_LOGIN_PREFIX, phone, ipAddress,
                 "Too many login attempts. Please wait before trying again.");
     }
 
     /**
-     * Reset OTP verify rate limit on successful verification
-     * This allows the user to try again after successful OTP entry
+     * Reset all login attempt limits (OTP verify and passkey) on successful login.
+     * A successful login by either method proves the caller owns the phone.
      */
-    public void resetOtpVerifyLimit(String phone) {
-        // Create a new bucket (which resets the limit)
-        String key = OTP_VERIFY_PREFIX + phone;
-        proxyManager.builder().build(key, () -> otpVerifyConfiguration);
-        log.debug("Reset OTP verify rate limit for phone: {}", maskPhone(phone));
+    public void resetLoginLimits(String phone) {
+        reset(OTP_VERIFY_PREFIX + phone, PASSKEY_LOGIN_PREFIX + phone);
+        if (compositeRateLimiter.isEnabled()) {
+            AfterCommit.execute(() -> compositeRateLimiter.reset(phone, OTP_VERIFY, PASSKEY_LOGIN));
+        }
     }
 
     /**
-     * Reset passkey login rate limit on successful login
+     * Delete the buckets once the current transaction commits (a rolled back login must
+     * not reset anything). The next check recreates them full. Deletion is asynchronous,
+     * failures are only logged: the worst case is the old, stricter limit.
      */
-    public void resetPasskeyLoginLimit(String phone) {
-        String key = PASSKEY_LOGIN_PREFIX + phone;
-        proxyManager.builder().build(key, () -> passkeyLoginConfiguration);
-        log.debug("Reset passkey login rate limit for phone: {}", maskPhone(phone));
+    private void reset(String... keys) {
+        AfterCommit.execute(() -> {
+            AsyncProxyManager<String> asyncProxyManager = proxyManager.asAsync();
+            for (String key : keys) {
+                asyncProxyManager.removeProxy(key).whenComplete((ignored, error) -> {
+                    // Drop cached denials/slices only once Redis has forgotten the bucket
+                    nearCache.invalidate(key);
+                    if (error != null) {
+                        log.warn("Failed to reset rate limit for key: {}: {}", maskKey(key), error.getMessage());
+                    } else {
+                        log.debug("Reset rate limit for key: {}", maskKey(key));
+                    }
+                });
+            }
+        });
     }
 
-    private void checkLimit(String key, Supplier<BucketConfiguration> configSupplier, String errorMessage) {
-        Bucket bucket = proxyManager.builder().build(key, configSupplier);
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+    private void checkLimit(String endpoint, String prefix, String identifier,
+                            String ipAddress, String errorMessage) {
+        BucketConfiguration configuration = policyRegistry.configurationFor(endpoint, identifier);
+        if (compositeRateLimiter.isEnabled()) {
+            long waitMillis = compositeRateLimiter.tryConsume(endpoint, identifier,
+                    limitOf(configuration), ipAddress);
+            if (waitMillis > 0) {
+                recordCheck(endpoint, "denied");
+                long waitSeconds = (waitMillis + 999) / 1000;
+                log.warn("Composite rate limit exceeded for endpoint: {}, retry after: {} seconds", endpoint, waitSeconds);
+                throw new RateLimitExceededException(errorMessage, waitSeconds);
+            }
+            recordCheck(endpoint, "allowed");
+            return;
+        }
 
-        if (!probe.isConsumed()) {
-            long waitSeconds = TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill());
+        String key = prefix + identifier;
+        RateLimitNearCache.Decision probe = nearCache.tryConsume(key, configuration, policyRegistry.version());
+
+        if (!probe.consumed()) {
+            recordCheck(endpoint, "denied");
+            long waitSeconds = TimeUnit.NANOSECONDS.toSeconds(probe.nanosToWaitForRefill());
             log.warn("Rate limit exceeded for key: {}, retry after: {} seconds", key, waitSeconds);
             throw new RateLimitExceededException(errorMessage, waitSeconds);
         }
 
-        log.debug("Rate limit check passed for key: {}, remaining: {}", key, probe.getRemainingTokens());
+        recordCheck(endpoint, "allowed");
+        log.debug("Rate limit check passed for key: {}, remaining: {}", key, probe.remainingTokens());
+    }
+
+    private void recordCheck(String policy, String result) {
+        meterRegistry.counter("rate_limit.checks", "policy", policy, "result", result).increment();
+    }
+
+    /**
+     * Identifier limit for the composite limiter, from the bucket's first bandwidth.
+     */
+    private static CompositeRateLimiter.Limit limitOf(BucketConfiguration configuration) {
+        Bandwidth bandwidth = configuration.getBandwidths()[0];
+        // Period in which a full capacity is refilled
+        long periodNanos = bandwidth.getRefillPeriodNanos() * bandwidth.getCapacity() / bandwidth.getRefillTokens();
+        return new CompositeRateLimiter.Limit(bandwidth.getCapacity(), Duration.ofNanos(periodNanos));
     }
 
-    private String maskPhone(String phone) {
-        if (phone == null || phone.length() < 4) {
+    private String maskKey(String key) {
+        if (key == null || key.length() < 4) {
             return "****";
         }
-        return "****" + phone.substring(phone.length() - 4);
+        return key.substring(0, key.lastIndexOf(':') + 1) + "****" + key.substring(key.length() - 4);
     }
 }
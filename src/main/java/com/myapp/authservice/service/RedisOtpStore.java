@@ -0,0 +1,84 @@
+package com.myapp.authservice.service;
+
+import com.myapp.authservice.util.OtpUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP store backed by Redis.
+ *
+ * Layout: otp:{identifier} -> current code, with TTL = app.otp.expiry-minutes.
+ * Sending a new OTP replaces the previous one. Verification compares and deletes
+ * in a single Lua script, so a code can only ever be consumed once.
+ *
+ * Redis does not take part in the caller's transaction: if the login transaction that
+ * consumed a code rolls back, the code is put back with its remaining lifetime (unless
+ * a newer OTP was sent meanwhile), as the otp_codes row would be.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisOtpStore implements OtpStore {
+
+    private static final RedisScript<Long> VERIFY_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/otp-verify.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final OtpUtils otpUtils;
+
+    @Override
+    public void save(String identifier, String code, LocalDateTime expiresAt) {
+        redisTemplate.opsForValue().set(otpUtils.getRedisKey(identifier), code,
+                Duration.ofSeconds(otpUtils.getExpirySeconds()));
+    }
+
+    @Override
+    public boolean verifyAndConsume(String identifier, String code) {
+        String key = otpUtils.getRedisKey(identifier);
+        Long remainingMillis = redisTemplate.execute(VERIFY_SCRIPT, List.of(key), code,
+                String.valueOf(TimeUnit.SECONDS.toMillis(otpUtils.getExpirySeconds())));
+        if (remainingMillis == null || remainingMillis <= 0) {
+            return false;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long consumedAt = System.nanoTime();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - consumedAt);
+                        restore(key, code, remainingMillis - elapsedMillis);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    private void restore(String key, String code, long remainingMillis) {
+        if (remainingMillis <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, code, Duration.ofMillis(remainingMillis));
+        } catch (RuntimeException e) {
+            log.warn("Failed to restore OTP after rollback: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int purgeExpired(LocalDateTime now) {
+        // Expired codes are removed by Redis TTL
+        return 0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.myapp.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import com.myapp.authservice.util.TokenHasher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh token store backed by Redis.
+ *
+ * Layout: one hash per user, refresh:user:{userId} -> { sha256(token): expiresAtEpochMillis },
+ * with the key TTL covering the longest-lived token. Rotation is a single Lua script,
+ * so a refresh costs one Redis round trip.
+ *
+ * When a write-behind delegate is configured, every change is replayed asynchronously
+ * into Postgres as a durable log. Redis stays authoritative for validation.
+ *
+ * Switching from the Postgres store: with migrateFromWriteBehind, a token missing from
+ * Redis is rotated in Postgres instead (sessions issued before the switch) and its
+ * replacement stored in Redis. While migrating, changes are written through to Postgres
+ * synchronously, so a token revoked or rotated in Redis can never be accepted from a
+ * lagging Postgres copy. Turn it off after one refresh token lifetime.
+ */
+@Slf4j
+public class RedisRefreshTokenStore implements RefreshTokenStore, DisposableBean {
+
+    private static final String KEY_PREFIX = "refresh:user:";
+
+    private static final RedisScript<Long> SAVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/refresh-token-save.lua"), Long.class);
+    private static final RedisScript<Long> ROTATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/refresh-token-rotate.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration tokenTtl;
+    private final RefreshTokenStore writeBehind;
+    private final TransactionTemplate writeBehindTransaction;
+    private final ThreadPoolExecutor writeBehindExecutor;
+    private final boolean migrateFromWriteBehind;
+
+    /**
+     * @param tokenTtl        Refresh token lifetime (hash TTL)
+     * @param writeBehind     Durable store to mirror changes into, or null to disable
+     * @param writeBehindTransaction Transaction to run each mirrored operation in
+     * @param writeBehindQueue Max pending write-behind operations before dropping
+     * @param migrateFromWriteBehind Accept tokens found only in the write-behind store
+     */
+    public RedisRefreshTokenStore(StringRedisTemplate redisTemplate, Duration tokenTtl,
+                                  RefreshTokenStore writeBehind, TransactionTemplate writeBehindTransaction,
+                                  int writeBehindQueue, boolean migrateFromWriteBehind) {
+        if (migrateFromWriteBehind && writeBehind == null) {
+            throw new IllegalStateException("Migrating refresh tokens from Postgres requires the write-behind store");
+        }
+        this.redisTemplate = redisTemplate;
+        this.tokenTtl = tokenTtl;
+        this.writeBehind = writeBehind;
+        this.writeBehindTransaction = writeBehindTransaction;
+        this.migrateFromWriteBehind = migrateFromWriteBehind;
+        this.writeBehindExecutor = writeBehind == null || migrateFromWriteBehind ? null : new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeBehindQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "refresh-token-write-behind");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> log.warn("Refresh token write-behind queue full, dropping operation"));
+    }
+
+    @Override
+    public void save(String userId, String token, LocalDateTime expiresAt) {
+        saveInRedis(userId, token, expiresAt);
+        mirror(() -> writeBehind.save(userId, token, expiresAt));
+    }
+
+    @Override
+    public boolean rotate(String userId, String oldToken, String newToken, LocalDateTime expiresAt) {
+        Long rotated = redisTemplate.execute(ROTATE_SCRIPT, List.of(key(userId)),
+                TokenHasher.sha256Base64Url(oldToken), TokenHasher.sha256Base64Url(newToken),
+                String.valueOf(toEpochMillis(expiresAt)),
+                String.valueOf(tokenTtl.toMillis()), String.valueOf(System.currentTimeMillis()));
+        if (rotated == null || rotated == 0L) {
+            return migrateFromWriteBehind && rotateFromWriteBehind(userId, oldToken, newToken, expiresAt);
+        }
+        mirror(() -> {
+            writeBehind.revokeAll(userId);
+            writeBehind.save(userId, newToken, expiresAt);
+        });
+        return true;
+    }
+
+    @Override
+    public void revoke(String userId, String token) {
+        redisTemplate.opsForHash().delete(key(userId), TokenHasher.sha256Base64Url(token));
+        mirror(() -> writeBehind.revoke(userId, token));
+    }
+
+    @Override
+    public void revokeAll(String userId) {
+        redisTemplate.delete(key(userId));
+        mirror(() -> writeBehind.revokeAll(userId));
+    }
+
+    @Override
+    public int purgeExpired(LocalDateTime now) {
+        // Redis expires whole user hashes by TTL; only the durable log needs sweeping
+        return writeBehind != null ? writeBehind.purgeExpired(now) : 0;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writeBehindExecutor != null) {
+            writeBehindExecutor.shutdown();
+            if (!writeBehindExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Refresh token write-behind did not drain, {} operations lost",
+                        writeBehindExecutor.getQueue().size());
+            }
+        }
+    }
+
+    /**
+     * Token issued by the Postgres store before the switch: consume it there (which also
+     * stores newToken there, as the write-behind would) and continue in Redis.
+     */
+    private boolean rotateFromWriteBehind(String userId, String oldToken, String newToken, LocalDateTime expiresAt) {
+        Boolean rotated = writeBehindTransaction.execute(status ->
+                writeBehind.rotate(userId, oldToken, newToken, expiresAt));
+        if (!Boolean.TRUE.equals(rotated)) {
+            return false;
+        }
+        saveInRedis(userId, newToken, expiresAt);
+        return true;
+    }
+
+    private void saveInRedis(String userId, String token, LocalDateTime expiresAt) {
+        redisTemplate.execute(SAVE_SCRIPT, List.of(key(userId)),
+                TokenHasher.sha256Base64Url(token), String.valueOf(toEpochMillis(expiresAt)),
+                String.valueOf(tokenTtl.toMillis()));
+    }
+
+    private void mirror(Runnable operation) {
+        if (migrateFromWriteBehind) {
+            writeBehindTransaction.executeWithoutResult(status -> operation.run());
+            return;
+        }
+        if (writeBehindExecutor == null) {
+            return;
+        }
+        writeBehindExecutor.execute(() -> {
+            try {
+                writeBehindTransaction.executeWithoutResult(status -> operation.run());
+            } catch (Exception e) {
+                log.error("Refresh token write-behind failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,47 @@
+package com.myapp.authservice.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage for issued refresh tokens.
+ *
+ * Implementations:
+ * - {@link JpaRefreshTokenStore}: refresh_tokens table (default)
+ * - {@link RedisRefreshTokenStore}: per-user Redis hash with TTL, optionally
+ *   mirrored to Postgres as a write-behind log
+ *
+ * Selected with app.refresh-token.store (postgres | redis).
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Store a newly issued refresh token for a user.
+     */
+    void save(String userId, String token, LocalDateTime expiresAt);
+
+    /**
+     * Atomically consume a refresh token and replace it.
+     * If oldToken is a live token of the user, ALL of the user's tokens are revoked
+     * (prevents duplicates from concurrent refreshes) and newToken is stored.
+     *
+     * @return true if rotated, false if oldToken was not found, revoked or expired
+     */
+    boolean rotate(String userId, String oldToken, String newToken, LocalDateTime expiresAt);
+
+    /**
+     * Revoke a single token (logout one device).
+     */
+    void revoke(String userId, String token);
+
+    /**
+     * Revoke all tokens of a user (logout all devices).
+     */
+    void revokeAll(String userId);
+
+    /**
+     * Remove expired tokens (cleanup job).
+     *
+     * @return Number of tokens removed
+     */
+    int purgeExpired(LocalDateTime now);
+}
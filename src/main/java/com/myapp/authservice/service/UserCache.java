@@ -0,0 +1,256 @@
+package com.myapp.authservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myapp.authservice.domain.UserProfile;
+import com.myapp.authservice.repository.UserRepository;
+import com.myapp.authservice.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier read-through cache of user profiles ({@link UserProfile}, no passkey hash).
+ *
+ * - Local tier: Caffeine, short TTL (app.user-cache.local.ttl)
+ * - Shared tier: Redis, user:cache:id:{id} holds the profile as JSON;
+ *   user:cache:phone:{phone} and user:cache:email:{email} hold the user id
+ * - Database on a miss in both tiers, through a projection query (no entity, no transaction)
+ *
+ * Phone/email entries only point to an id, and a profile found through them is checked
+ * against the requested phone/email, so a changed phone or email never returns the wrong
+ * user; only the id entry has to be invalidated.
+ *
+ * Invalidation: {@link #evict} runs after the mutating transaction commits, deletes the
+ * Redis entry and publishes the id on the user:cache:invalidate channel, which every
+ * instance (including this one) answers by dropping its local entry. The same is repeated
+ * once after app.user-cache.second-eviction-delay, to also drop a profile that a concurrent
+ * read loaded from the database just before the commit and cached just after it. Changes
+ * made outside this service (direct SQL) are picked up when the TTLs run out. Inserts need
+ * no invalidation: misses are never cached. Account status is changed that way, so checks
+ * that gate token issuance (refresh) read it from the database instead.
+ */
+@Slf4j
+@Component
+public class UserCache {
+
+    public static final String INVALIDATION_CHANNEL = "user:cache:invalidate";
+
+    static final String ID_KEY_PREFIX = "user:cache:id:";
+    static final String PHONE_KEY_PREFIX = "user:cache:phone:";
+    static final String EMAIL_KEY_PREFIX = "user:cache:email:";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration redisTtl;
+    private final Duration secondEvictionDelay;
+    private final ScheduledExecutorService secondEviction;
+
+    private final Cache<String, UserProfile> byId;
+    private final Cache<String, String> idByPhone;
+    private final Cache<String, String> idByEmail;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter redisErrors;
+
+    public UserCache(UserRepository userRepository,
+                     StringRedisTemplate redisTemplate,
+                     ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.user-cache.enabled:true}") boolean enabled,
+                     @Value("${app.user-cache.local.max-size:100000}") long localMaxSize,
+                     @Value("${app.user-cache.local.ttl:60s}") Duration localTtl,
+                     @Value("${app.user-cache.redis.ttl:10m}") Duration redisTtl,
+                     @Value("${app.user-cache.second-eviction-delay:2s}") Duration secondEvictionDelay) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.redisTtl = redisTtl;
+        this.secondEvictionDelay = secondEvictionDelay;
+        this.secondEviction = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-cache-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.byId = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build();
+        this.idByPhone = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build();
+        this.idByEmail = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build();
+
+        this.localHits = meterRegistry.counter("user.cache.requests", "result", "hit", "tier", "local");
+        this.redisHits = meterRegistry.counter("user.cache.requests", "result", "hit", "tier", "redis");
+        this.misses = meterRegistry.counter("user.cache.requests", "result", "miss", "tier", "none");
+        this.redisErrors = meterRegistry.counter("user.cache.redis.errors");
+        meterRegistry.gauge("user.cache.local.size", byId, Cache::estimatedSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        secondEviction.shutdownNow();
+    }
+
+    public Optional<UserProfile> findById(String id) {
+        if (!enabled) {
+            return userRepository.findProfileById(id);
+        }
+        UserProfile local = byId.getIfPresent(id);
+        if (local != null) {
+            localHits.increment();
+            return Optional.of(local);
+        }
+        UserProfile shared = readRedis(id);
+        if (shared != null) {
+            redisHits.increment();
+            byId.put(id, shared);
+            return Optional.of(shared);
+        }
+        misses.increment();
+        return load(() -> userRepository.findProfileById(id));
+    }
+
+    public Optional<UserProfile> findByPhone(String phone) {
+        if (!enabled) {
+            return userRepository.findProfileByPhone(phone);
+        }
+        return findByKey(phone, idByPhone, PHONE_KEY_PREFIX, UserProfile::phone,
+                () -> userRepository.findProfileByPhone(phone));
+    }
+
+    /**
+     * @param email Lower-case email
+     */
+    public Optional<UserProfile> findByEmail(String email) {
+        if (!enabled) {
+            return userRepository.findProfileByEmail(email);
+        }
+        return findByKey(email, idByEmail, EMAIL_KEY_PREFIX, user -> lowerCase(user.email()),
+                () -> userRepository.findProfileByEmail(email));
+    }
+
+    /**
+     * Invalidate a user on all instances once the current transaction commits
+     * (immediately without a transaction). Call after every User mutation.
+     */
+    public void evict(String userId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.execute(() -> {
+            invalidateEverywhere(userId);
+            try {
+                secondEviction.schedule(() -> invalidateEverywhere(userId),
+                        secondEvictionDelay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Shutting down, skipped second eviction for user: {}", userId);
+            }
+        });
+    }
+
+    private void invalidateEverywhere(String userId) {
+        byId.invalidate(userId);
+        try {
+            redisTemplate.delete(ID_KEY_PREFIX + userId);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Failed to publish user cache invalidation for user: {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Invalidation published by any instance.
+     */
+    public void onInvalidation(String userId) {
+        byId.invalidate(userId);
+    }
+
+    private Optional<UserProfile> findByKey(String key, Cache<String, String> localIndex, String redisPrefix,
+                                           Function<UserProfile, String> keyOf,
+                                           Supplier<Optional<UserProfile>> loader) {
+        String id = localIndex.getIfPresent(key);
+        if (id == null) {
+            id = readRedisIndex(redisPrefix + key);
+            if (id != null) {
+                localIndex.put(key, id);
+            }
+        }
+        if (id != null) {
+            Optional<UserProfile> user = findById(id);
+            if (user.isPresent() && key.equals(keyOf.apply(user.get()))) {
+                return user;
+            }
+            // Phone/email moved to another user (or the user is gone): stale index entry
+            localIndex.invalidate(key);
+        }
+        misses.increment();
+        return load(loader);
+    }
+
+    private Optional<UserProfile> load(Supplier<Optional<UserProfile>> loader) {
+        Optional<UserProfile> user = loader.get();
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    private void put(UserProfile user) {
+        byId.put(user.id(), user);
+        idByPhone.put(user.phone(), user.id());
+        if (user.email() != null) {
+            idByEmail.put(lowerCase(user.email()), user.id());
+        }
+        try {
+            redisTemplate.opsForValue().set(ID_KEY_PREFIX + user.id(), objectMapper.writeValueAsString(user), redisTtl);
+            redisTemplate.opsForValue().set(PHONE_KEY_PREFIX + user.phone(), user.id(), redisTtl);
+            if (user.email() != null) {
+                redisTemplate.opsForValue().set(EMAIL_KEY_PREFIX + lowerCase(user.email()), user.id(), redisTtl);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            redisErrors.increment();
+            log.debug("Failed to cache user in Redis: {}", e.getMessage());
+        }
+    }
+
+    private UserProfile readRedis(String id) {
+        try {
+            String json = redisTemplate.opsForValue().get(ID_KEY_PREFIX + id);
+            return json != null ? objectMapper.readValue(json, UserProfile.class) : null;
+        } catch (JsonProcessingException | RuntimeException e) {
+            redisErrors.increment();
+            log.debug("Failed to read user from Redis cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String readRedisIndex(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.debug("Failed to read user index from Redis cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String lowerCase(String email) {
+        return email != null ? email.toLowerCase() : null;
+    }
+}
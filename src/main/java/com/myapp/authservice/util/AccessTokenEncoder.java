@@ -0,0 +1,238 @@
+package com.myapp.authservice.util;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Specialized HMAC JWS encoder for the fixed-shape access token payload.
+ *
+ * Produces exactly what jjwt emits for the same claims:
+ *   header:  {"alg":"HS256|HS384|HS512"}
+ *   payload: {"role":"...","phone":"...","userId":"...","iat":123,"exp":456}
+ *
+ * The encoded header is computed once, and the payload, signing input and signature
+ * are written into per-thread buffers using a per-thread Mac, so minting a token
+ * allocates only the resulting String. Virtual threads are short-lived, so they
+ * borrow buffers from a shared pool instead of creating per-thread ones. The pool keeps
+ * at most one set per core; sets returned beyond that (after a burst) are dropped.
+ */
+final class AccessTokenEncoder {
+
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] ROLE_PREFIX = ascii("{\"role\":\"");
+    private static final byte[] PHONE_PREFIX = ascii("\",\"phone\":\"");
+    private static final byte[] USER_ID_PREFIX = ascii("\",\"userId\":\"");
+    private static final byte[] IAT_PREFIX = ascii("\",\"iat\":");
+    private static final byte[] EXP_PREFIX = ascii(",\"exp\":");
+
+    private final byte[] encodedHeader;
+    private final Mac prototype;
+    private final ThreadLocal<Buffers> buffers;
+    private final Queue<Buffers> virtualThreadBuffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    AccessTokenEncoder(SecretKey key) {
+        String jcaName = key.getAlgorithm(); // e.g. HmacSHA384
+        if (!jcaName.startsWith("HmacSHA")) {
+            throw new IllegalArgumentException("Unsupported JWT signing key algorithm: " + jcaName);
+        }
+        byte[] header = ascii("{\"alg\":\"HS" + jcaName.substring("HmacSHA".length()) + "\"}");
+        byte[] encoded = new byte[encodedLength(header.length)];
+        this.encodedHeader = Arrays.copyOf(encoded, encode(header, header.length, encoded, 0));
+
+        try {
+            this.prototype = Mac.getInstance(jcaName);
+            this.prototype.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + jcaName, e);
+        }
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(newMac()));
+    }
+
+    /**
+     * Encode a signed access token.
+     *
+     * @return compact JWS, or null if a claim needs JSON escaping or non-ASCII encoding
+     *         (callers fall back to jjwt in that case)
+     */
+    String encode(String userId, String phone, String role, long issuedAtSeconds, long expiresAtSeconds) {
+        if (!isPlainAscii(userId) || !isPlainAscii(phone) || !isPlainAscii(role)) {
+            return null;
+        }
+
+        if (!Thread.currentThread().isVirtual()) {
+            return encode(buffers.get(), userId, phone, role, issuedAtSeconds, expiresAtSeconds);
+        }
+        Buffers buf = virtualThreadBuffers.poll();
+        if (buf == null) {
+            buf = new Buffers(newMac());
+        }
+        try {
+            return encode(buf, userId, phone, role, issuedAtSeconds, expiresAtSeconds);
+        } finally {
+            // Dropped if the pool is full
+            virtualThreadBuffers.offer(buf);
+        }
+    }
+
+    private String encode(Buffers buf, String userId, String phone, String role,
+                          long issuedAtSeconds, long expiresAtSeconds) {
+        // 1. Payload JSON
+        int jsonLength = ROLE_PREFIX.length + role.length() + PHONE_PREFIX.length + phone.length()
+                + USER_ID_PREFIX.length + userId.length() + IAT_PREFIX.length + EXP_PREFIX.length + 20 + 20 + 1;
+        byte[] json = buf.json(jsonLength);
+        int pos = 0;
+        pos = put(json, pos, ROLE_PREFIX);
+        pos = put(json, pos, role);
+        pos = put(json, pos, PHONE_PREFIX);
+        pos = put(json, pos, phone);
+        pos = put(json, pos, USER_ID_PREFIX);
+        pos = put(json, pos, userId);
+        pos = put(json, pos, IAT_PREFIX);
+        pos = putLong(json, pos, issuedAtSeconds);
+        pos = put(json, pos, EXP_PREFIX);
+        pos = putLong(json, pos, expiresAtSeconds);
+        json[pos++] = '}';
+
+        // 2. Signing input: base64url(header) '.' base64url(payload)
+        Mac mac = buf.mac;
+        int outLength = encodedHeader.length + 1 + encodedLength(pos) + 1 + encodedLength(mac.getMacLength());
+        byte[] out = buf.out(outLength);
+        int len = put(out, 0, encodedHeader);
+        out[len++] = '.';
+        len = encode(json, pos, out, len);
+
+        // 3. Signature
+        mac.update(out, 0, len);
+        byte[] signature = buf.signature;
+        try {
+            mac.doFinal(signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign access token", e);
+        }
+        out[len++] = '.';
+        len = encode(signature, signature.length, out, len);
+
+        return new String(out, 0, len, StandardCharsets.ISO_8859_1);
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Mac provider does not support cloning", e);
+        }
+    }
+
+    /**
+     * Printable ASCII without characters Jackson would escape.
+     */
+    private static boolean isPlainAscii(String value) {
+        if (value == null) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int put(byte[] dst, int pos, byte[] src) {
+        System.arraycopy(src, 0, dst, pos, src.length);
+        return pos + src.length;
+    }
+
+    private static int put(byte[] dst, int pos, String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            dst[pos++] = (byte) ascii.charAt(i);
+        }
+        return pos;
+    }
+
+    private static int putLong(byte[] dst, int pos, long value) {
+        if (value < 0) {
+            dst[pos++] = '-';
+            value = -value;
+        }
+        int start = pos;
+        do {
+            dst[pos++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        // Digits were written least significant first
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte tmp = dst[i];
+            dst[i] = dst[j];
+            dst[j] = tmp;
+        }
+        return pos;
+    }
+
+    private static int encodedLength(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    /**
+     * Unpadded base64url encoding of src[0, length) into dst at pos.
+     */
+    private static int encode(byte[] src, int length, byte[] dst, int pos) {
+        int i = 0;
+        int whole = length - length % 3;
+        while (i < whole) {
+            int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+            dst[pos++] = BASE64URL[(bits >>> 18) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 6) & 0x3f];
+            dst[pos++] = BASE64URL[bits & 0x3f];
+        }
+        int remaining = length - whole;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[pos++] = BASE64URL[(bits >>> 18) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[pos++] = BASE64URL[(bits >>> 18) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[pos++] = BASE64URL[(bits >>> 6) & 0x3f];
+        }
+        return pos;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reusable per-thread scratch space. Grows on demand, never shrinks.
+     */
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] signature;
+        private byte[] json = new byte[256];
+        private byte[] out = new byte[512];
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+            this.signature = new byte[mac.getMacLength()];
+        }
+
+        byte[] json(int capacity) {
+            if (json.length < capacity) json = new byte[capacity];
+            return json;
+        }
+
+        byte[] out(int capacity) {
+            if (out.length < capacity) out = new byte[capacity];
+            return out;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.myapp.authservice.util;
 
 import java.security.SecureRandom;
+import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -9,15 +10,32 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Format: c[timestamp][counter][fingerprint][random]
  * Example: ckz5q0w0x0000qzrmn0mqgqzr
  *
+ * Lock-free: the counter wraps with floorMod instead of a reset, and random blocks come
+ * from a per-thread SplittableRandom split off a root seeded once from SecureRandom, so
+ * generation never waits on a shared (possibly entropy-starved) SecureRandom. Characters
+ * are written straight into one char[].
+ *
  * Reference: https://github.com/paralleldrive/cuid
  */
 public class CuidGenerator {
 
-    private static final String BASE = "0123456789abcdefghijklmnopqrstuvwxyz";
-    private static final int BASE_SIZE = BASE.length();
+    private static final char[] BASE = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int BASE_SIZE = BASE.length;
+    private static final int BLOCK_SIZE = 4;
+    private static final int DISCRETE_VALUES = 1679616; // 36^4
     private static final AtomicInteger counter = new AtomicInteger(0);
-    private static final SecureRandom random = new SecureRandom();
-    private static final String fingerprint = generateFingerprint();
+
+    // Independent stream per thread: split() picks a new seed and gamma, so streams do not
+    // overlap (advancing the seed by the golden gamma would only shift one shared stream).
+    // split() mutates the root, hence the lock, taken once per thread
+    private static final SplittableRandom root = new SplittableRandom(new SecureRandom().nextLong());
+    private static final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(() -> {
+        synchronized (root) {
+            return root.split();
+        }
+    });
+
+    private static final char[] fingerprint = generateFingerprint();
 
     /**
      * Generate a CUID
@@ -25,66 +43,58 @@ public class CuidGenerator {
      */
     public static String generate() {
         long timestamp = System.currentTimeMillis();
-        int count = counter.getAndIncrement();
-        if (count >= 1679616) { // 36^4
-            counter.set(0);
-        }
+        int count = Math.floorMod(counter.getAndIncrement(), DISCRETE_VALUES);
+        SplittableRandom rng = random.get();
 
-        StringBuilder cuid = new StringBuilder("c");
-        cuid.append(toBase36(timestamp));
-        cuid.append(pad(toBase36(count), 4));
-        cuid.append(fingerprint);
-        cuid.append(randomBlock());
-        cuid.append(randomBlock());
+        int timestampLength = base36Length(timestamp);
+        char[] cuid = new char[1 + timestampLength + 4 * BLOCK_SIZE];
+        int pos = 0;
+        cuid[pos++] = 'c';
+        pos = writeBase36(cuid, pos, timestamp, timestampLength);
+        pos = writeBase36(cuid, pos, count, BLOCK_SIZE);
+        System.arraycopy(fingerprint, 0, cuid, pos, BLOCK_SIZE);
+        pos += BLOCK_SIZE;
+        pos = writeBase36(cuid, pos, rng.nextInt(DISCRETE_VALUES), BLOCK_SIZE);
+        writeBase36(cuid, pos, rng.nextInt(DISCRETE_VALUES), BLOCK_SIZE);
 
-        return cuid.toString();
+        return new String(cuid);
     }
 
     /**
-     * Convert number to base36
+     * Number of base36 digits of a non-negative number
      */
-    private static String toBase36(long num) {
-        if (num == 0) return "0";
-
-        StringBuilder result = new StringBuilder();
-        long n = Math.abs(num);
-
-        while (n > 0) {
-            result.insert(0, BASE.charAt((int)(n % BASE_SIZE)));
-            n /= BASE_SIZE;
+    private static int base36Length(long num) {
+        int length = 1;
+        while (num >= BASE_SIZE) {
+            num /= BASE_SIZE;
+            length++;
         }
-
-        return result.toString();
+        return length;
     }
 
     /**
-     * Pad string to specified length
+     * Write the lowest {@code width} base36 digits of a non-negative number, zero padded,
+     * into dst at pos
      */
-    private static String pad(String str, int size) {
-        StringBuilder padded = new StringBuilder(str);
-        while (padded.length() < size) {
-            padded.insert(0, '0');
+    private static int writeBase36(char[] dst, int pos, long num, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            dst[i] = BASE[(int) (num % BASE_SIZE)];
+            num /= BASE_SIZE;
         }
-        return padded.toString().substring(padded.length() - size);
-    }
-
-    /**
-     * Generate random block of 4 characters
-     */
-    private static String randomBlock() {
-        int num = random.nextInt(1679616); // 36^4
-        return pad(toBase36(num), 4);
+        return pos + width;
     }
 
     /**
      * Generate machine fingerprint (stable across app restarts)
      */
-    private static String generateFingerprint() {
+    private static char[] generateFingerprint() {
         // Use JVM process ID and hostname for fingerprint
         String pid = String.valueOf(ProcessHandle.current().pid());
         String hostname = getHostname();
-        int hash = (pid + hostname).hashCode();
-        return pad(toBase36(Math.abs(hash)), 4);
+        long hash = Math.abs((long) (pid + hostname).hashCode());
+        char[] block = new char[BLOCK_SIZE];
+        writeBase36(block, 0, hash, BLOCK_SIZE);
+        return block;
     }
 
     /**
@@ -1,8 +1,12 @@
 package com.myapp.authservice.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.myapp.authservice.domain.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +20,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Token structure must match exactly:
@@ -26,6 +31,10 @@ import java.util.Map;
  *   iat: number,
  *   exp: number
  * }
+ *
+ * Verification uses a single pre-built (thread-safe) parser. Successfully verified
+ * access tokens are remembered until their exp claim, keyed by the signature segment,
+ * so repeated requests with the same token skip the HMAC check and JSON decoding.
  */
 @Slf4j
 @Component
@@ -34,14 +43,26 @@ public class JwtUtils {
     private final SecretKey secretKey;
     private final long accessTokenExpirySeconds;
     private final long refreshTokenExpiryDays;
+    private final JwtParser parser;
+    private final AccessTokenEncoder accessTokenEncoder;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
     public JwtUtils(
             @Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.access-token-expiry-seconds}") long accessTokenExpirySeconds,
-            @Value("${app.jwt.refresh-token-expiry-days}") long refreshTokenExpiryDays) {
+            @Value("${app.jwt.refresh-token-expiry-days}") long refreshTokenExpiryDays,
+            @Value("${app.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenExpirySeconds = accessTokenExpirySeconds;
         this.refreshTokenExpiryDays = refreshTokenExpiryDays;
+        this.accessTokenEncoder = new AccessTokenEncoder(secretKey);
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
     }
 
     /**
@@ -54,6 +75,14 @@ public class JwtUtils {
      * @return JWT access token string
      */
     public String generateAccessToken(String userId, String phone, Role role) {
+        // Fast path: byte-identical to the jjwt output below, without the map/Jackson round trip
+        long issuedAt = Instant.now().getEpochSecond();
+        String token = accessTokenEncoder.encode(
+                userId, phone, role.name(), issuedAt, issuedAt + accessTokenExpirySeconds);
+        if (token != null) {
+            return token;
+        }
+
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("phone", phone);
@@ -101,11 +130,25 @@ public class JwtUtils {
      * @throws JwtException if token is invalid or expired
      */
     public Claims verifyAccessToken(String token) throws JwtException {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String signature = signatureOf(token);
+        if (signature == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
+        // The cached entry must be for the exact same token: a matching signature
+        // alone says nothing about a tampered header or payload.
+        VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+        if (cached != null && cached.token().equals(token)
+                && System.currentTimeMillis() < cached.expiresAtMillis()) {
+            return cached.claims();
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(signature, new VerifiedToken(token, claims, expiration.getTime()));
+        }
+        return claims;
     }
 
     /**
@@ -117,11 +160,8 @@ public class JwtUtils {
      * @throws JwtException if token is invalid or expired
      */
     public Claims verifyRefreshToken(String token) throws JwtException {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        // Not cached: refresh tokens are single-use and rotated on every call
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -155,4 +195,42 @@ public class JwtUtils {
         }
         return null;
     }
+
+    /**
+     * Signature segment of a compact JWS, or null if the token is malformed
+     * (left to the parser to reject with a proper exception).
+     */
+    private static String signatureOf(String token) {
+        if (token == null) return null;
+        int lastDot = token.lastIndexOf('.');
+        if (lastDot < 0 || lastDot == token.length() - 1) return null;
+        return token.substring(lastDot + 1);
+    }
+
+    private record VerifiedToken(String token, Claims claims, long expiresAtMillis) {
+    }
+
+    /**
+     * Evicts each verified token exactly when its exp claim passes.
+     */
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.myapp.authservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digests of opaque tokens.
+ *
+ * Refresh tokens are stored and looked up by digest only, so the token store
+ * holds fixed 32-byte keys instead of full JWT strings.
+ */
+public final class TokenHasher {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenHasher() {
+    }
+
+    /**
+     * @param token Token string
+     * @return 32-byte SHA-256 digest of the UTF-8 token bytes
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param token Token string
+     * @return Unpadded base64url SHA-256 digest (43 chars), for string-keyed stores
+     */
+    public static String sha256Base64Url(String token) {
+        return BASE64URL.encodeToString(sha256(token));
+    }
+}
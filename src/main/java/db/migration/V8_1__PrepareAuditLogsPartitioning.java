@@ -0,0 +1,74 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+
+/**
+ * Migration: Prepare audit_logs to be attached as the legacy partition in V9
+ *
+ * Does the slow work ahead of V9, outside its ACCESS EXCLUSIVE lock. Runs outside a
+ * transaction, so every statement commits on its own:
+ * - CHECK (created < legacy_end) is added NOT VALID (brief lock, no scan) and validated
+ *   separately under SHARE UPDATE EXCLUSIVE, which lets reads and writes through. The
+ *   validated CHECK implies the partition constraint, so ATTACH skips its scan
+ * - the (id, created) unique index required by the parent's unique constraint is built
+ *   CONCURRENTLY and turned into a constraint, which ATTACH adopts instead of building one
+ *
+ * legacy_end is the first month not covered by the legacy partition: after the current
+ * month and after the newest row. It is kept as the CHECK's comment for V9. The CHECK also
+ * rejects rows from later months until V9 attaches the table, i.e. only if the migrations
+ * run across a month boundary.
+ *
+ * Java because the creation timestamp column is resolved from the catalog ("createdAt" in
+ * the Prisma-created schema, created_at in V4), and CREATE INDEX CONCURRENTLY cannot run
+ * inside a DO block.
+ */
+public class V8_1__PrepareAuditLogsPartitioning extends BaseJavaMigration {
+
+    private static final String BOUND_CONSTRAINT = "audit_logs_legacy_bound";
+    private static final String KEY_CONSTRAINT = "audit_logs_legacy_id_created";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        String createdCol = jdbcTemplate.queryForObject("""
+                SELECT quote_ident(column_name) FROM information_schema.columns
+                 WHERE table_schema = current_schema() AND table_name = 'audit_logs'
+                   AND column_name IN ('createdAt', 'created_at')
+                """, String.class);
+
+        // max() is answered from idx_audit_created_at
+        LocalDateTime legacyEnd = jdbcTemplate.queryForObject(String.format("""
+                SELECT greatest(date_trunc('month', max(%s)), date_trunc('month', now()))
+                       + interval '1 month'
+                  FROM audit_logs
+                """, createdCol), LocalDateTime.class);
+
+        // Leftovers of a failed earlier run (a failed concurrent build leaves an INVALID index)
+        jdbcTemplate.execute("ALTER TABLE audit_logs DROP CONSTRAINT IF EXISTS " + BOUND_CONSTRAINT);
+        jdbcTemplate.execute("ALTER TABLE audit_logs DROP CONSTRAINT IF EXISTS " + KEY_CONSTRAINT);
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + KEY_CONSTRAINT);
+
+        jdbcTemplate.execute(String.format(
+                "ALTER TABLE audit_logs ADD CONSTRAINT %s CHECK (%s IS NOT NULL AND %s < '%s') NOT VALID",
+                BOUND_CONSTRAINT, createdCol, createdCol, legacyEnd));
+        jdbcTemplate.execute(String.format(
+                "COMMENT ON CONSTRAINT %s ON audit_logs IS '%s'", BOUND_CONSTRAINT, legacyEnd));
+        jdbcTemplate.execute("ALTER TABLE audit_logs VALIDATE CONSTRAINT " + BOUND_CONSTRAINT);
+
+        jdbcTemplate.execute(String.format(
+                "CREATE UNIQUE INDEX CONCURRENTLY %s ON audit_logs (id, %s)", KEY_CONSTRAINT, createdCol));
+        jdbcTemplate.execute(String.format(
+                "ALTER TABLE audit_logs ADD CONSTRAINT %s UNIQUE USING INDEX %s", KEY_CONSTRAINT, KEY_CONSTRAINT));
+    }
+}
@@ -0,0 +1,37 @@
+-- Migration: Indexed last-10-digits phone lookup
+-- Replaces the leading-wildcard scan (phone LIKE '%<digits>') used to match numbers sent
+-- with a different or no country code.
+--
+-- Only catalog changes here, so the users table is locked for milliseconds: a nullable
+-- column (no rewrite) and a trigger that derives it from phone on every insert/update,
+-- including rows written outside this service. Existing rows are backfilled in batches
+-- and the index is built concurrently by V11.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS phone_national_10 VARCHAR(10);
+
+-- Last 10 digits of the phone; NULL for email-only placeholders (+0000...) and for
+-- numbers with fewer digits. Mirrored by User.nationalNumber() for lookups
+CREATE OR REPLACE FUNCTION users_phone_national_10(phone TEXT) RETURNS VARCHAR(10)
+LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE
+        WHEN phone LIKE '+0000%' THEN NULL
+        WHEN length(regexp_replace(phone, '\D', '', 'g')) >= 10
+            THEN right(regexp_replace(phone, '\D', '', 'g'), 10)
+    END
+$$;
+
+CREATE OR REPLACE FUNCTION users_set_phone_national_10() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.phone_national_10 := users_phone_national_10(NEW.phone);
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_users_phone_national_10 ON users;
+CREATE TRIGGER trg_users_phone_national_10
+    BEFORE INSERT OR UPDATE OF phone, phone_national_10 ON users
+    FOR EACH ROW EXECUTE FUNCTION users_set_phone_national_10();
+
+-- Comments
+COMMENT ON COLUMN users.phone_national_10 IS 'Last 10 digits of phone, for country-code-agnostic lookups (maintained by trigger)';
@@ -0,0 +1,31 @@
+-- Migration: Backfill users.phone_national_10 and index it (see V10)
+--
+-- Runs outside a transaction (V11__backfill_phone_national_10.sql.conf): the backfill
+-- commits every batch of 5000 rows, walked in primary key order, so row locks are held
+-- briefly and logins/signups are never blocked for the whole table; the index is built
+-- with CONCURRENTLY, which does not block writes. Rows written meanwhile are already
+-- covered by the V10 trigger.
+
+DO $$
+DECLARE
+    last_id   VARCHAR(30) := '';
+    batch_end VARCHAR(30);
+BEGIN
+    LOOP
+        SELECT max(id) INTO batch_end
+          FROM (SELECT id FROM users WHERE id > last_id ORDER BY id LIMIT 5000) batch;
+        EXIT WHEN batch_end IS NULL;
+
+        UPDATE users SET phone_national_10 = users_phone_national_10(phone)
+         WHERE id > last_id AND id <= batch_end
+           AND phone_national_10 IS DISTINCT FROM users_phone_national_10(phone);
+
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- A failed concurrent build leaves an INVALID index behind: drop it before retrying
+DROP INDEX CONCURRENTLY IF EXISTS idx_user_phone_national_10;
+CREATE INDEX CONCURRENTLY idx_user_phone_national_10 ON users(phone_national_10);
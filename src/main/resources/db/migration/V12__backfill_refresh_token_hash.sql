@@ -0,0 +1,43 @@
+-- Migration: Backfill refresh_tokens.token_hash, then constrain and index it (see V8)
+--
+-- Runs outside a transaction (V12__backfill_refresh_token_hash.sql.conf): the backfill
+-- commits every batch of 5000 rows, walked in primary key order, so row locks are held
+-- briefly and refreshes/logins are never blocked for the whole table. Rows written
+-- meanwhile are already covered by the V8 trigger (previous release) or written with
+-- a digest (this release).
+
+DO $$
+DECLARE
+    last_id   VARCHAR(30) := '';
+    batch_end VARCHAR(30);
+BEGIN
+    LOOP
+        SELECT max(id) INTO batch_end
+          FROM (SELECT id FROM refresh_tokens WHERE id > last_id ORDER BY id LIMIT 5000) batch;
+        EXIT WHEN batch_end IS NULL;
+
+        UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8'))
+         WHERE id > last_id AND id <= batch_end
+           AND token_hash IS NULL AND token IS NOT NULL;
+
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- NOT NULL without a full scan under ACCESS EXCLUSIVE: the CHECK is validated under a lock
+-- that lets reads and writes through, and SET NOT NULL then relies on it (PostgreSQL 12+)
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS chk_refresh_token_hash_not_null;
+ALTER TABLE refresh_tokens ADD CONSTRAINT chk_refresh_token_hash_not_null
+    CHECK (token_hash IS NOT NULL) NOT VALID;
+ALTER TABLE refresh_tokens VALIDATE CONSTRAINT chk_refresh_token_hash_not_null;
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens DROP CONSTRAINT chk_refresh_token_hash_not_null;
+
+-- Unique index built without blocking writes, then promoted to the constraint.
+-- A failed concurrent build leaves an INVALID index behind: drop it before retrying
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS uq_refresh_token_hash;
+DROP INDEX CONCURRENTLY IF EXISTS uq_refresh_token_hash;
+CREATE UNIQUE INDEX CONCURRENTLY uq_refresh_token_hash ON refresh_tokens(token_hash);
+ALTER TABLE refresh_tokens ADD CONSTRAINT uq_refresh_token_hash UNIQUE USING INDEX uq_refresh_token_hash;
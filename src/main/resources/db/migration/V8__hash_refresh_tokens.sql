@@ -0,0 +1,35 @@
+-- Migration: Store SHA-256 digests of refresh tokens instead of the full JWT
+-- The token column (VARCHAR(500) UNIQUE + redundant idx_refresh_token) is replaced
+-- by a fixed 32-byte digest with a single unique index.
+-- A hash index cannot enforce uniqueness in Postgres; a B-tree over 32-byte keys is
+-- already compact (roughly 1/10th of the old VARCHAR entries).
+--
+-- Only catalog changes here, so refresh_tokens is locked for milliseconds: a nullable
+-- column (no rewrite), token made optional (this release no longer writes it) and a
+-- trigger that derives the digest for rows still written by the previous release.
+-- Existing rows are backfilled in batches and the column constrained/indexed by V12.
+-- The token column, its indexes and the trigger are dropped in a later release, once
+-- no instance of the previous release is left.
+
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+ALTER TABLE refresh_tokens ALTER COLUMN token DROP NOT NULL;
+
+-- sha256() requires PostgreSQL 11+
+CREATE OR REPLACE FUNCTION refresh_tokens_set_token_hash() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF NEW.token IS NOT NULL THEN
+        NEW.token_hash := sha256(convert_to(NEW.token, 'UTF8'));
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS trg_refresh_tokens_token_hash ON refresh_tokens;
+CREATE TRIGGER trg_refresh_tokens_token_hash
+    BEFORE INSERT OR UPDATE OF token ON refresh_tokens
+    FOR EACH ROW EXECUTE FUNCTION refresh_tokens_set_token_hash();
+
+-- Comments
+COMMENT ON COLUMN refresh_tokens.token_hash IS 'SHA-256 digest of the JWT refresh token';
+COMMENT ON COLUMN refresh_tokens.token IS 'Deprecated: JWT refresh token string, written by the previous release only';
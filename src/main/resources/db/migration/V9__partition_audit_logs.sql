@@ -0,0 +1,75 @@
+-- Migration: Convert audit_logs to a monthly range-partitioned table on the creation timestamp
+--
+-- Existing rows are not copied: the old table is attached as a single partition covering
+-- everything up to the end of the month of its newest row (at least the current month, which
+-- already has rows on a live database). V8_1 has already validated a CHECK matching that bound
+-- and built the (id, created) unique constraint, and the parent's other indexes match the ones
+-- the old table already has, so ATTACH PARTITION neither scans the table nor builds an index:
+-- everything under the ACCESS EXCLUSIVE lock taken here is a catalog change, apart from the
+-- empty new partitions. New rows land in monthly partitions audit_logs_pYYYYMM from the legacy
+-- bound on, which are pre-created and retired by AuditPartitionManager (app.audit.partitions.*).
+--
+-- The creation timestamp / user columns are resolved from the catalog because they are
+-- named "createdAt"/"userId" in the Prisma-created schema and created_at/user_id in V4.
+
+DO $$
+DECLARE
+    created_col TEXT;
+    user_col    TEXT;
+    legacy_end  TIMESTAMP;
+    m           INT;
+BEGIN
+    SELECT column_name INTO created_col FROM information_schema.columns
+     WHERE table_schema = current_schema() AND table_name = 'audit_logs'
+       AND column_name IN ('createdAt', 'created_at');
+    SELECT column_name INTO user_col FROM information_schema.columns
+     WHERE table_schema = current_schema() AND table_name = 'audit_logs'
+       AND column_name IN ('userId', 'user_id');
+
+    -- First month not covered by the legacy partition, as validated by V8_1
+    SELECT obj_description(oid, 'pg_constraint')::timestamp INTO legacy_end
+      FROM pg_constraint
+     WHERE conrelid = 'audit_logs'::regclass AND conname = 'audit_logs_legacy_bound';
+
+    -- Keep the old table (and its indexes) under a new name
+    ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+    ALTER INDEX IF EXISTS idx_audit_user_id RENAME TO idx_audit_legacy_user_id;
+    ALTER INDEX IF EXISTS idx_audit_action RENAME TO idx_audit_legacy_action;
+    ALTER INDEX IF EXISTS idx_audit_created_at RENAME TO idx_audit_legacy_created_at;
+    ALTER INDEX IF EXISTS idx_audit_phone RENAME TO idx_audit_legacy_phone;
+
+    -- Partitioned parent; a unique key must include the partition key. A unique constraint
+    -- rather than a primary key, so it adopts the legacy table's audit_logs_legacy_id_created
+    EXECUTE format('CREATE TABLE audit_logs (LIKE audit_logs_legacy INCLUDING DEFAULTS) '
+                   'PARTITION BY RANGE (%I)', created_col);
+    EXECUTE format('ALTER TABLE audit_logs ADD CONSTRAINT uq_audit_logs_id_created UNIQUE (id, %I)', created_col);
+    EXECUTE format('ALTER TABLE audit_logs ADD CONSTRAINT fk_audit_logs_user FOREIGN KEY (%I) '
+                   'REFERENCES users(id) ON DELETE SET NULL', user_col);
+
+    EXECUTE format('CREATE INDEX idx_audit_user_id ON audit_logs (%I)', user_col);
+    CREATE INDEX idx_audit_action ON audit_logs (action);
+    EXECUTE format('CREATE INDEX idx_audit_created_at ON audit_logs (%I)', created_col);
+    CREATE INDEX idx_audit_phone ON audit_logs (phone);
+
+    -- Existing history becomes one partition. The validated CHECK implies the partition
+    -- constraint, so ATTACH does not scan the table; it is redundant afterwards
+    EXECUTE format('ALTER TABLE audit_logs ATTACH PARTITION audit_logs_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', legacy_end);
+    ALTER TABLE audit_logs_legacy DROP CONSTRAINT audit_logs_legacy_bound;
+
+    -- Four monthly partitions from the legacy bound on
+    FOR m IN 0..3 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       'audit_logs_p' || to_char(legacy_end + make_interval(months => m), 'YYYYMM'),
+                       legacy_end + make_interval(months => m),
+                       legacy_end + make_interval(months => m + 1));
+    END LOOP;
+
+    -- Safety net if partition maintenance falls behind; expected to stay empty
+    CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+END
+$$;
+
+-- Comments
+COMMENT ON TABLE audit_logs IS 'Comprehensive audit trail for all authentication events (monthly partitions)';
+COMMENT ON TABLE audit_logs_legacy IS 'Audit rows recorded before partitioning';
@@ -0,0 +1,15 @@
+-- Verify an OTP and consume it in one step.
+-- KEYS[1] = OTP key (otp:{identifier})
+-- ARGV[1] = submitted code
+-- ARGV[2] = OTP lifetime in ms (reported for a key without TTL)
+-- Returns the remaining lifetime in ms of the consumed code (> 0), or 0 if it did not match
+local current = redis.call('GET', KEYS[1])
+if current and current == ARGV[1] then
+    local ttl = redis.call('PTTL', KEYS[1])
+    redis.call('DEL', KEYS[1])
+    if ttl < 1 then
+        ttl = tonumber(ARGV[2])
+    end
+    return ttl
+end
+return 0
@@ -0,0 +1,38 @@
+-- Composite token bucket: take one token from every bucket, or from none.
+-- KEYS[i]          = bucket key (hash: tokens, ts)
+-- ARGV[3i-2 .. 3i] = capacity, refill tokens, refill period (ms) of KEYS[i]
+-- Returns 0 when consumed, otherwise milliseconds until every bucket has a token.
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local available = {}
+local wait = 0
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[3 * i - 2])
+    local refill = tonumber(ARGV[3 * i - 1])
+    local period = tonumber(ARGV[3 * i])
+    local state = redis.call('HMGET', key, 'tokens', 'ts')
+    local tokens = capacity
+    if state[1] then
+        local elapsed = math.max(0, now - tonumber(state[2]))
+        tokens = math.min(capacity, tonumber(state[1]) + elapsed * refill / period)
+    end
+    available[i] = tokens
+    if tokens < 1 then
+        wait = math.max(wait, math.ceil((1 - tokens) * period / refill))
+    end
+end
+
+if wait > 0 then
+    return wait
+end
+
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[3 * i - 2])
+    local refill = tonumber(ARGV[3 * i - 1])
+    local period = tonumber(ARGV[3 * i])
+    redis.call('HSET', key, 'tokens', tostring(available[i] - 1), 'ts', now)
+    -- Expire once the bucket would be full again
+    redis.call('PEXPIRE', key, math.ceil(capacity * period / refill))
+end
+return 0
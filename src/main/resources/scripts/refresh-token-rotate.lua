@@ -0,0 +1,12 @@
+-- Consume a refresh token and replace all of the user's tokens with a new one.
+-- KEYS[1] = user token hash
+-- ARGV[1] = old token digest, ARGV[2] = new token digest, ARGV[3] = new token expiry (epoch ms),
+-- ARGV[4] = hash TTL (ms), ARGV[5] = now (epoch ms)
+local expiresAt = redis.call('HGET', KEYS[1], ARGV[1])
+if not expiresAt or tonumber(expiresAt) <= tonumber(ARGV[5]) then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], ARGV[2], ARGV[3])
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+return 1
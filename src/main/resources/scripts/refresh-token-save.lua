@@ -0,0 +1,8 @@
+-- Store a refresh token in the user's token hash.
+-- KEYS[1] = user token hash
+-- ARGV[1] = token digest, ARGV[2] = token expiry (epoch ms), ARGV[3] = hash TTL (ms)
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+if redis.call('PTTL', KEYS[1]) < tonumber(ARGV[3]) then
+    redis.call('PEXPIRE', KEYS[1], ARGV[3])
+end
+return 1
@@ -0,0 +1,41 @@
+package com.myapp.authservice.domain;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The User aggregate must not map its children as collections (see the note at the end of
+ * User): they are unbounded and would be loaded by dirty checking and cascades. Only the
+ * mapping is inspected, so the in-memory database needs no schema.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class UserMappingTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void userHasNoCollections() {
+        assertThat(entityManager.getMetamodel().entity(User.class).getPluralAttributes()).isEmpty();
+    }
+
+    @Test
+    void childrenReferenceTheUserOneWay() {
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            assertThat(entity.getPluralAttributes())
+                    .as("collections mapped by %s", entity.getName())
+                    .isEmpty();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.myapp.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapp.authservice.domain.User;
+import com.myapp.authservice.dto.request.ResolveOrCreateUserRequest;
+import com.myapp.authservice.dto.request.ResolveOrCreateUserRequest.IdentityType;
+import com.myapp.authservice.dto.response.ResolveOrCreateUserResponse;
+import com.myapp.authservice.repository.UserRepository;
+import com.myapp.authservice.util.CuidGenerator;
+import com.myapp.authservice.util.OtpUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Placeholder user creation against Postgres: the insert is native SQL (jsonb_to_recordset,
+ * ON CONFLICT DO NOTHING, the Prisma enum types) that no in-memory database can run.
+ * Requires Docker; skipped without it.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class InternalUserServiceTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withCopyFileToContainer(MountableFile.forClasspathResource("db/prisma-users.sql"),
+                    "/docker-entrypoint-initdb.d/prisma-users.sql");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private InternalUserService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new InternalUserService(userRepository, mock(UserCache.class), new OtpUtils(6, 5), new ObjectMapper());
+    }
+
+    @Test
+    void insertsMissingUsersAsUnverifiedPlaceholders() {
+        List<ResolveOrCreateUserResponse> responses = service.resolveOrCreateUsers(List.of(
+                phone("+919876543210", "Asha"),
+                phone("+14155550123", null)));
+
+        assertThat(responses).allMatch(ResolveOrCreateUserResponse::isNew);
+        User asha = userRepository.findByPhone("+919876543210").orElseThrow();
+        assertThat(asha.getId()).isEqualTo(responses.get(0).getUserId());
+        assertThat(asha.getName()).isEqualTo("Asha");
+        assertThat(asha.isVerified()).isFalse();
+        assertThat(asha.getPhoneNational10()).isEqualTo("9876543210");
+        assertThat(userRepository.findByPhone("+14155550123").orElseThrow().getName()).isEqualTo("Guest");
+    }
+
+    @Test
+    void resolvesExistingPhoneWithoutInserting() {
+        String existingId = insert("+919876543210");
+
+        List<ResolveOrCreateUserResponse> responses = service.resolveOrCreateUsers(List.of(
+                phone("+919876543210", "Asha"),
+                phone("+919876543211", "Ravi")));
+
+        assertThat(responses.get(0).getUserId()).isEqualTo(existingId);
+        assertThat(responses.get(0).isNew()).isFalse();
+        assertThat(responses.get(1).isNew()).isTrue();
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void insertSkipsRowsWhosePhoneIsTaken() {
+        String existingId = insert("+919876543210");
+        String newId = CuidGenerator.generate();
+
+        List<String> inserted = userRepository.insertPlaceholdersIfAbsent(rows(
+                Map.of("id", CuidGenerator.generate(), "phone", "+919876543210", "name", "Asha"),
+                Map.of("id", newId, "phone", "+919876543211", "name", "Ravi")), LocalDateTime.now());
+
+        assertThat(inserted).containsExactly(newId);
+        assertThat(userRepository.findByPhone("+919876543210").orElseThrow().getId()).isEqualTo(existingId);
+    }
+
+    @Test
+    void insertKeepsFirstOfDuplicatePhonesInOneBatch() {
+        String first = CuidGenerator.generate();
+
+        List<String> inserted = userRepository.insertPlaceholdersIfAbsent(rows(
+                Map.of("id", first, "phone", "+919876543210", "name", "Asha"),
+                Map.of("id", CuidGenerator.generate(), "phone", "+919876543210", "name", "Asha")), LocalDateTime.now());
+
+        assertThat(inserted).containsExactly(first);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedKeysInOneBatchResolveToTheSameUser() {
+        List<ResolveOrCreateUserResponse> responses = service.resolveOrCreateUsers(List.of(
+                phone("+91 98765 43210", "Asha"),
+                phone("+919876543210", "Asha"),
+                email("Asha@Example.com"),
+                email("asha@example.com")));
+
+        assertThat(responses.get(0).getUserId()).isEqualTo(responses.get(1).getUserId());
+        assertThat(responses.get(2).getUserId()).isEqualTo(responses.get(3).getUserId());
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void emailOnlyUsersGetPlaceholderPhones() {
+        List<ResolveOrCreateUserResponse> responses = service.resolveOrCreateUsers(List.of(
+                email("asha@example.com"),
+                email("ravi@example.com")));
+
+        assertThat(responses).allMatch(ResolveOrCreateUserResponse::isNew);
+        for (ResolveOrCreateUserResponse response : responses) {
+            User user = userRepository.findById(response.getUserId()).orElseThrow();
+            assertThat(user.getPhone()).startsWith("+0000").isEqualTo(response.getPhone());
+            assertThat(user.getEmail()).isEqualTo(response.getEmail());
+            assertThat(user.getPhoneNational10()).isNull();
+        }
+        assertThat(service.resolveOrCreateUsers(List.of(email("ASHA@example.com"))).get(0))
+                .satisfies(response -> {
+                    assertThat(response.getUserId()).isEqualTo(responses.get(0).getUserId());
+                    assertThat(response.isNew()).isFalse();
+                });
+    }
+
+    private String insert(String phone) {
+        String id = CuidGenerator.generate();
+        userRepository.insertPlaceholdersIfAbsent(rows(Map.of("id", id, "phone", phone, "name", "Existing")),
+                LocalDateTime.now());
+        return id;
+    }
+
+    @SafeVarargs
+    private static String rows(Map<String, String>... rows) {
+        try {
+            return new ObjectMapper().writeValueAsString(List.of(rows));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResolveOrCreateUserRequest phone(String phone, String name) {
+        return new ResolveOrCreateUserRequest(phone, IdentityType.PHONE, name);
+    }
+
+    private static ResolveOrCreateUserRequest email(String email) {
+        return new ResolveOrCreateUserRequest(email, IdentityType.EMAIL, null);
+    }
+}
@@ -0,0 +1,101 @@
+package com.myapp.authservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CuidGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 10_000;
+
+    // 'c', base36 timestamp (8 digits until 2059), then counter, fingerprint and two random blocks of 4
+    private static final Pattern CUID = Pattern.compile("c[0-9a-z]{8,9}[0-9a-z]{16}");
+
+    @Test
+    void generatesWellFormedIds() {
+        for (int i = 0; i < 1_000; i++) {
+            String cuid = CuidGenerator.generate();
+            assertThat(cuid).matches(CUID);
+            assertThat(cuid.length()).isLessThanOrEqualTo(30); // users.id is VARCHAR(30)
+        }
+    }
+
+    @Test
+    void concurrentGenerationProducesNoDuplicates() throws Exception {
+        List<List<String>> perThread = generateConcurrently(THREADS, PER_THREAD, false);
+
+        Set<String> unique = new HashSet<>();
+        perThread.forEach(unique::addAll);
+        assertThat(unique).hasSize(THREADS * PER_THREAD);
+        assertThat(unique).allMatch(cuid -> CUID.matcher(cuid).matches());
+    }
+
+    @Test
+    void concurrentGenerationOnVirtualThreadsProducesNoDuplicates() throws Exception {
+        List<List<String>> perThread = generateConcurrently(THREADS * 4, PER_THREAD / 4, true);
+
+        Set<String> unique = new HashSet<>();
+        perThread.forEach(unique::addAll);
+        assertThat(unique).hasSize(THREADS * PER_THREAD);
+    }
+
+    /**
+     * The random blocks must come from independent per-thread streams: threads whose
+     * streams are shifted copies of each other would repeat the same blocks, leaving only
+     * the counter and timestamp to tell IDs apart.
+     */
+    @Test
+    void threadsDrawIndependentRandomBlocks() throws Exception {
+        List<List<String>> perThread = generateConcurrently(THREADS, PER_THREAD, false);
+
+        Set<String> randomBlocks = new HashSet<>();
+        int repeated = 0;
+        for (List<String> ids : perThread) {
+            for (String cuid : ids) {
+                if (!randomBlocks.add(cuid.substring(cuid.length() - 8))) {
+                    repeated++;
+                }
+            }
+        }
+        // 160k draws from 36^8 values: a chance repeat is expected well under once per run
+        assertThat(repeated).isLessThanOrEqualTo(2);
+    }
+
+    private static List<List<String>> generateConcurrently(int threads, int perThread, boolean virtual)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>(threads);
+        try (ExecutorService executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<String> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(CuidGenerator.generate());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            List<List<String>> results = new ArrayList<>(threads);
+            for (Future<List<String>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+}
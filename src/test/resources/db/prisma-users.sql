@@ -0,0 +1,41 @@
+-- users as created by the Node.js service (Prisma): quoted camelCase timestamp/passkey columns
+-- and native enum types, plus the phone_national_10 column and trigger from V10. The Flyway
+-- migrations cannot build this schema from scratch (V1 uses snake_case columns)
+
+CREATE TYPE "Role" AS ENUM ('USER', 'ADMIN');
+CREATE TYPE "UserStatus" AS ENUM ('ACTIVE', 'SUSPENDED', 'DELETED');
+
+CREATE TABLE users (
+    id                VARCHAR(30) PRIMARY KEY,
+    phone             VARCHAR(20) NOT NULL UNIQUE,
+    phone_national_10 VARCHAR(10),
+    name              VARCHAR(255) NOT NULL,
+    email             VARCHAR(100),
+    role              "Role" NOT NULL DEFAULT 'USER',
+    "passkeyHash"     VARCHAR(60),
+    status            "UserStatus" NOT NULL DEFAULT 'ACTIVE',
+    is_verified       BOOLEAN NOT NULL DEFAULT true,
+    "createdAt"       TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "updatedAt"       TIMESTAMP(3) NOT NULL
+);
+
+CREATE FUNCTION users_phone_national_10(phone TEXT) RETURNS VARCHAR(10)
+LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE
+        WHEN phone LIKE '+0000%' THEN NULL
+        WHEN length(regexp_replace(phone, '\D', '', 'g')) >= 10
+            THEN right(regexp_replace(phone, '\D', '', 'g'), 10)
+    END
+$$;
+
+CREATE FUNCTION users_set_phone_national_10() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.phone_national_10 := users_phone_national_10(NEW.phone);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_users_phone_national_10
+    BEFORE INSERT OR UPDATE OF phone, phone_national_10 ON users
+    FOR EACH ROW EXECUTE FUNCTION users_set_phone_national_10();